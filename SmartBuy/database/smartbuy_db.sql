@@ -59,6 +59,23 @@ INSERT INTO `categories` VALUES (2, 'Laptops', 'Laptop', '2026-01-06 18:52:05');
 INSERT INTO `categories` VALUES (3, 'Audio', 'Headphones, speakers, and other audio equipment', '2026-01-06 18:52:05');
 INSERT INTO `categories` VALUES (4, 'Accessories', 'Charger, data cable, and other accessories', '2026-01-06 18:52:05');
 
+-- ----------------------------
+-- Table structure for inventory_ledger
+-- Stock taken in memory for hot products, committed with the order
+-- and applied to products.stock in batches (no foreign key: a row must
+-- outlive its order until it has been applied)
+-- ----------------------------
+DROP TABLE IF EXISTS `inventory_ledger`;
+CREATE TABLE `inventory_ledger`  (
+  `ledger_id` bigint NOT NULL AUTO_INCREMENT,
+  `product_id` int NOT NULL,
+  `order_id` int NOT NULL,
+  `quantity` int NOT NULL,
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`ledger_id`) USING BTREE,
+  INDEX `idx_product`(`product_id` ASC) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for order_items
 -- ----------------------------
@@ -97,9 +114,9 @@ CREATE TABLE `orders`  (
   `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
   `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (`order_id`) USING BTREE,
-  INDEX `idx_user`(`user_id` ASC) USING BTREE,
+  INDEX `idx_user`(`user_id` ASC, `order_date` ASC, `order_id` ASC) USING BTREE,
   INDEX `idx_status`(`status` ASC) USING BTREE,
-  INDEX `idx_order_date`(`order_date` ASC) USING BTREE,
+  INDEX `idx_order_date`(`order_date` ASC, `total_amount` ASC) USING BTREE,
   CONSTRAINT `orders_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`user_id`) ON DELETE CASCADE ON UPDATE RESTRICT
 ) ENGINE = InnoDB AUTO_INCREMENT = 21 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = DYNAMIC;
 
@@ -128,6 +145,8 @@ CREATE TABLE `products`  (
   INDEX `idx_category`(`category_id` ASC) USING BTREE,
   INDEX `idx_brand`(`brand` ASC) USING BTREE,
   INDEX `idx_price`(`price` ASC) USING BTREE,
+  INDEX `idx_available_created`(`is_available` ASC, `created_at` ASC) USING BTREE,
+  INDEX `idx_category_available_created`(`category_id` ASC, `is_available` ASC, `created_at` ASC) USING BTREE,
   CONSTRAINT `products_ibfk_1` FOREIGN KEY (`category_id`) REFERENCES `categories` (`category_id`) ON DELETE CASCADE ON UPDATE RESTRICT
 ) ENGINE = InnoDB AUTO_INCREMENT = 15 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci ROW_FORMAT = DYNAMIC;
 
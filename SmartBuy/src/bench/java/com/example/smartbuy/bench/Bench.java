@@ -0,0 +1,226 @@
+package com.example.smartbuy.bench;
+
+import com.example.smartbuy.model.CheckoutResult;
+import com.example.smartbuy.model.Order;
+import com.example.smartbuy.model.OrderItem;
+import com.example.smartbuy.util.DatabaseUtil;
+import com.example.smartbuy.util.LatencyHistogram;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared plumbing of the stress and benchmark mains in this package
+ * src/bench is not part of the application build: compile it against the
+ * application classes and the JDBC driver, and run the mains by hand.
+ * The mains connect through DatabaseUtil, so the database is chosen with the usual
+ * -Dsmartbuy.db.url/user/password properties. Those that place orders or overwrite
+ * stock refuse to run unless -Dsmartbuy.bench.allowWrites=true is also set: point
+ * them at a scratch copy of smartbuy_db, never at a shop with real orders.
+ * Thread and order counts are set with -Dsmartbuy.bench.threads and
+ * -Dsmartbuy.bench.ordersPerThread.
+ */
+final class Bench {
+
+    static final int THREADS = Integer.getInteger("smartbuy.bench.threads", 16);
+    static final int ORDERS_PER_THREAD = Integer.getInteger("smartbuy.bench.ordersPerThread", 300);
+
+    private Bench() {}
+
+    /**
+     * Places one order for a stress run
+     */
+    @FunctionalInterface
+    interface Checkout {
+        CheckoutResult place(Order order) throws Exception;
+    }
+
+    /**
+     * Builds the next order of a worker thread (each thread has its own Random)
+     */
+    @FunctionalInterface
+    interface OrderFactory {
+        Order next(Random random);
+    }
+
+    /**
+     * Outcome of one concurrent run
+     */
+    static class Result {
+        final AtomicInteger placed = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger duplicateOrderIds = new AtomicInteger();
+        // Units in placed orders per product ID
+        final Map<Integer, AtomicInteger> sold = new ConcurrentHashMap<>();
+        final Set<Integer> orderIds = ConcurrentHashMap.newKeySet();
+        final LatencyHistogram latency = new LatencyHistogram();
+        double seconds;
+
+        int soldOf(int productId) {
+            AtomicInteger units = sold.get(productId);
+            return units == null ? 0 : units.get();
+        }
+    }
+
+    /**
+     * Exit unless the run was explicitly allowed to write to the database
+     */
+    static void requireWritableDatabase() {
+        if (!Boolean.getBoolean("smartbuy.bench.allowWrites")) {
+            System.err.println("This benchmark places orders and overwrites stock in "
+                    + System.getProperty("smartbuy.db.url", "the default database") + ".");
+            System.err.println("Point -Dsmartbuy.db.url at a scratch database and add -Dsmartbuy.bench.allowWrites=true.");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Run threads * ordersPerThread checkouts at once and count what happened
+     */
+    static Result run(String label, int threads, int ordersPerThread, OrderFactory orders, Checkout checkout)
+            throws InterruptedException {
+        Result result = new Result();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            workers.execute(() -> {
+                for (int i = 0; i < ordersPerThread; i++) {
+                    Order order = orders.next(random);
+                    long begin = System.nanoTime();
+                    try {
+                        CheckoutResult placed = checkout.place(order);
+                        result.latency.record(System.nanoTime() - begin);
+                        if (!placed.isPlaced()) {
+                            result.rejected.incrementAndGet();
+                            continue;
+                        }
+                        result.placed.incrementAndGet();
+                        if (!result.orderIds.add(placed.getOrderId())) {
+                            result.duplicateOrderIds.incrementAndGet();
+                        }
+                        for (OrderItem item : order.getOrderItems()) {
+                            result.sold.computeIfAbsent(item.getProductId(), id -> new AtomicInteger())
+                                    .addAndGet(item.getQuantity());
+                        }
+                    } catch (Exception e) {
+                        // Print the first few; the count is in the summary
+                        if (result.errors.incrementAndGet() <= 3) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        result.seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-12s placed=%d rejected=%d errors=%d in %.2fs (%.0f checkouts/s)%n",
+                label, result.placed.get(), result.rejected.get(), result.errors.get(), result.seconds,
+                threads * ordersPerThread / result.seconds);
+        System.out.println("             latency " + result.latency.summary());
+        return result;
+    }
+
+    /**
+     * An order of one unit or more of a single product
+     */
+    static Order order(int userId, int productId, int quantity) {
+        Order order = new Order(userId, BigDecimal.ONE, "Benchmark", "Benchmark");
+        order.addOrderItem(new OrderItem(productId, "Benchmark", quantity, BigDecimal.ONE));
+        return order;
+    }
+
+    /**
+     * ID of any user, to own the benchmark orders
+     */
+    static int anyUserId() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT MIN(user_id) FROM users");
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next() && rs.getObject(1) != null) {
+                return rs.getInt(1);
+            }
+        }
+        throw new SQLException("The benchmark needs at least one user in the database.");
+    }
+
+    /**
+     * The first products by ID
+     */
+    static List<Integer> productIds(int count) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT product_id FROM products ORDER BY product_id LIMIT ?")) {
+            pstmt.setInt(1, count);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        if (ids.size() < count) {
+            throw new SQLException("The benchmark needs at least " + count + " products in the database.");
+        }
+        return ids;
+    }
+
+    /**
+     * Current stock per product ID
+     */
+    static Map<Integer, Integer> stocks(List<Integer> productIds) throws SQLException {
+        Map<Integer, Integer> stocks = new LinkedHashMap<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT stock FROM products WHERE product_id = ?")) {
+            for (int productId : productIds) {
+                pstmt.setInt(1, productId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    stocks.put(productId, rs.next() ? rs.getInt(1) : 0);
+                }
+            }
+        }
+        return stocks;
+    }
+
+    /**
+     * Set the stock of every given product
+     */
+    static void setStock(List<Integer> productIds, int stock) throws SQLException {
+        Map<Integer, Integer> stocks = new LinkedHashMap<>();
+        for (int productId : productIds) {
+            stocks.put(productId, stock);
+        }
+        setStocks(stocks);
+    }
+
+    /**
+     * Set stock per product ID, e.g. to put back what stocks() read before a run
+     */
+    static void setStocks(Map<Integer, Integer> stocks) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("UPDATE products SET stock = ? WHERE product_id = ?")) {
+            for (Map.Entry<Integer, Integer> e : stocks.entrySet()) {
+                pstmt.setInt(1, e.getValue());
+                pstmt.setInt(2, e.getKey());
+                pstmt.executeUpdate();
+            }
+        }
+    }
+}
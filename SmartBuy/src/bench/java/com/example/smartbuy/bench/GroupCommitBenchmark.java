@@ -0,0 +1,76 @@
+package com.example.smartbuy.bench;
+
+import com.example.smartbuy.dao.OrderDAO;
+import com.example.smartbuy.service.CheckoutQueue;
+import com.example.smartbuy.util.DatabaseUtil;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Throughput of CheckoutQueue's group commit against one transaction per order
+ * Runs the same burst of single-product checkouts through OrderDAO.checkout and
+ * through CheckoutQueue (window and batch size from the usual
+ * -Dsmartbuy.checkout.* properties), twice each so the second round is warm.
+ * Then repeats the queued run on a small stock (-Dsmartbuy.bench.stock, default
+ * 100 per product). Passes when every order got its own order ID, nothing failed
+ * and nothing was oversold. The products' stock is put back at the end; the
+ * placed orders stay.
+ *
+ * java -Dsmartbuy.db.url=jdbc:mysql://.../smartbuy_scratch -Dsmartbuy.bench.allowWrites=true \
+ *      com.example.smartbuy.bench.GroupCommitBenchmark
+ *
+ * Exits with status 1 if a check fails.
+ */
+public class GroupCommitBenchmark {
+
+    private static final int PRODUCTS = 5;
+    private static final int PLENTY = 1_000_000;
+    private static final int STOCK = Integer.getInteger("smartbuy.bench.stock", 100);
+
+    public static void main(String[] args) throws Exception {
+        Bench.requireWritableDatabase();
+        int userId = Bench.anyUserId();
+        List<Integer> productIds = Bench.productIds(PRODUCTS);
+        Map<Integer, Integer> original = Bench.stocks(productIds);
+        OrderDAO orderDAO = new OrderDAO();
+        CheckoutQueue queue = CheckoutQueue.getInstance();
+        Bench.OrderFactory orders = random -> Bench.order(userId, productIds.get(random.nextInt(PRODUCTS)), 1);
+
+        boolean passed = true;
+        try {
+            for (int round = 0; round < 2; round++) {
+                Bench.setStock(productIds, PLENTY);
+                passed &= ok(Bench.run("direct", Bench.THREADS, Bench.ORDERS_PER_THREAD, orders, orderDAO::checkout));
+                passed &= ok(Bench.run("grouped", Bench.THREADS, Bench.ORDERS_PER_THREAD, orders,
+                        order -> queue.checkout(order, Collections.emptySet())));
+            }
+
+            Bench.setStock(productIds, STOCK);
+            Bench.Result limited = Bench.run("limited", Bench.THREADS, Bench.ORDERS_PER_THREAD, orders,
+                    order -> queue.checkout(order, Collections.emptySet()));
+            passed &= ok(limited);
+            for (Map.Entry<Integer, Integer> e : Bench.stocks(productIds).entrySet()) {
+                int stock = e.getValue();
+                int sold = limited.soldOf(e.getKey());
+                boolean ok = stock >= 0 && stock + sold == STOCK;
+                passed &= ok;
+                System.out.printf("product %d: stock left=%d sold=%d %s%n", e.getKey(), stock, sold, ok ? "ok" : "MISMATCH");
+            }
+        } finally {
+            Bench.setStocks(original);
+            DatabaseUtil.shutdown();
+        }
+
+        System.out.println(passed ? "PASSED" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean ok(Bench.Result result) {
+        if (result.duplicateOrderIds.get() > 0) {
+            System.out.println("             duplicate order IDs: " + result.duplicateOrderIds.get());
+        }
+        return result.errors.get() == 0 && result.duplicateOrderIds.get() == 0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.smartbuy.bench;
+
+import com.example.smartbuy.dao.OrderDAO;
+import com.example.smartbuy.model.Order;
+import com.example.smartbuy.model.OrderItem;
+import com.example.smartbuy.service.InventoryReservationService;
+import com.example.smartbuy.util.DatabaseUtil;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stress test of InventoryReservationService on one hot product
+ * Every order buys 1-2 units of the first product; a quarter also buy one of the
+ * next three. Two runs:
+ * 1. Plenty of stock: the row-lock path (OrderDAO.checkout) and the reservation
+ *    path are timed on the same load, and after the ledger is flushed the hot
+ *    product's stock must have dropped by exactly the units sold.
+ * 2. Limited stock (-Dsmartbuy.bench.stock, default 500): no oversell, and stock
+ *    left plus units sold equals the starting stock.
+ * The products' stock is put back at the end; the placed orders stay.
+ *
+ * java -Dsmartbuy.db.url=jdbc:mysql://.../smartbuy_scratch -Dsmartbuy.bench.allowWrites=true \
+ *      com.example.smartbuy.bench.HotProductStress
+ *
+ * Exits with status 1 if a check fails.
+ */
+public class HotProductStress {
+
+    private static final int PLENTY = 1_000_000;
+    private static final int STOCK = Integer.getInteger("smartbuy.bench.stock", 500);
+
+    public static void main(String[] args) throws Exception {
+        Bench.requireWritableDatabase();
+        int userId = Bench.anyUserId();
+        List<Integer> productIds = Bench.productIds(4);
+        int hot = productIds.get(0);
+        Map<Integer, Integer> original = Bench.stocks(productIds);
+        Bench.OrderFactory orders = random -> {
+            Order order = Bench.order(userId, hot, 1 + random.nextInt(2));
+            if (random.nextInt(4) == 0) {
+                order.addOrderItem(new OrderItem(productIds.get(1 + random.nextInt(3)), "Benchmark", 1,
+                        BigDecimal.ONE));
+            }
+            return order;
+        };
+
+        boolean passed = true;
+        try {
+            Bench.setStock(productIds, PLENTY);
+            passed &= Bench.run("row-lock", Bench.THREADS, Bench.ORDERS_PER_THREAD, orders,
+                    new OrderDAO()::checkout).errors.get() == 0;
+
+            int before = Bench.stocks(productIds).get(hot);
+            InventoryReservationService service = new InventoryReservationService();
+            service.promote(hot);
+            Bench.Result reserved = Bench.run("reservation", Bench.THREADS, Bench.ORDERS_PER_THREAD, orders,
+                    service::checkout);
+            service.shutdown();
+            int after = Bench.stocks(productIds).get(hot);
+            boolean consistent = reserved.errors.get() == 0 && before - after == reserved.soldOf(hot);
+            passed &= consistent;
+            System.out.printf("hot product %d: stock %d -> %d, sold=%d %s%n",
+                    hot, before, after, reserved.soldOf(hot), consistent ? "ok" : "MISMATCH");
+
+            Bench.setStock(productIds, STOCK);
+            service = new InventoryReservationService();
+            service.promote(hot);
+            Bench.Result limited = Bench.run("limited", Bench.THREADS, Bench.ORDERS_PER_THREAD, orders,
+                    service::checkout);
+            service.shutdown();
+            int left = Bench.stocks(productIds).get(hot);
+            boolean noOversell = limited.errors.get() == 0 && left >= 0 && left + limited.soldOf(hot) == STOCK;
+            passed &= noOversell;
+            System.out.printf("hot product %d: stock left=%d sold=%d of %d %s%n",
+                    hot, left, limited.soldOf(hot), STOCK, noOversell ? "ok" : "OVERSOLD");
+        } finally {
+            Bench.setStocks(original);
+            DatabaseUtil.shutdown();
+        }
+
+        System.out.println(passed ? "PASSED" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+}
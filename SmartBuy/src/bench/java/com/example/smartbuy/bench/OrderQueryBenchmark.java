@@ -0,0 +1,82 @@
+package com.example.smartbuy.bench;
+
+import com.example.smartbuy.dao.OrderDAO;
+import com.example.smartbuy.model.Order;
+import com.example.smartbuy.model.OrderItem;
+import com.example.smartbuy.util.DatabaseUtil;
+import com.example.smartbuy.util.SqlStats;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statements run by the order list queries, which must not grow with the order count
+ * Loads every order (OrderDAO.getAllOrders) and one user's orders (getUserOrders)
+ * with their items, counting the statements through SqlStats. Each must run at
+ * most two: one for the orders and one for all of their items.
+ * Read-only; to measure a bigger table, -Dsmartbuy.bench.seedOrders=N first places
+ * N small orders, which also needs -Dsmartbuy.bench.allowWrites=true.
+ *
+ * java -Dsmartbuy.db.url=jdbc:mysql://.../smartbuy_db com.example.smartbuy.bench.OrderQueryBenchmark
+ *
+ * Exits with status 1 if a query ran more statements.
+ */
+public class OrderQueryBenchmark {
+
+    private static final int MAX_STATEMENTS = 2;
+
+    public static void main(String[] args) throws Exception {
+        int seedOrders = Integer.getInteger("smartbuy.bench.seedOrders", 0);
+        int userId = Bench.anyUserId();
+        OrderDAO orderDAO = new OrderDAO();
+        SqlStats.setEnabled(true);
+
+        boolean passed;
+        try {
+            if (seedOrders > 0) {
+                Bench.requireWritableDatabase();
+                List<Integer> productIds = Bench.productIds(2);
+                for (int i = 0; i < seedOrders; i++) {
+                    Order order = Bench.order(userId, productIds.get(0), 1);
+                    order.addOrderItem(new OrderItem(productIds.get(1), "Benchmark", 1, BigDecimal.ONE));
+                    orderDAO.createOrder(order);
+                }
+            }
+
+            passed = measure("getAllOrders", orderDAO::getAllOrders);
+            passed &= measure("getUserOrders", () -> orderDAO.getUserOrders(userId));
+        } finally {
+            DatabaseUtil.shutdown();
+        }
+
+        System.out.println(passed ? "PASSED" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+
+    @FunctionalInterface
+    private interface OrderQuery {
+        List<Order> load() throws SQLException;
+    }
+
+    private static boolean measure(String label, OrderQuery query) throws SQLException {
+        SqlStats.reset();
+        long start = System.nanoTime();
+        List<Order> orders = query.load();
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        long statements = 0;
+        for (Map.Entry<String, SqlStats.StatementStats> e : SqlStats.getAll().entrySet()) {
+            statements += e.getValue().getCalls();
+        }
+        int items = 0;
+        for (Order order : orders) {
+            items += order.getOrderItems().size();
+        }
+        boolean ok = statements <= MAX_STATEMENTS;
+        System.out.printf("%-14s orders=%d items=%d statements=%d in %.1fms %s%n",
+                label, orders.size(), items, statements, millis, ok ? "ok" : "N+1");
+        return ok;
+    }
+}
@@ -3,10 +3,16 @@ package com.example.smartbuy.controller;
 import com.example.smartbuy.dao.OrderDAO;
 import com.example.smartbuy.dao.ProductDAO;
 import com.example.smartbuy.dao.UserDAO;
+import com.example.smartbuy.model.CategoryStat;
+import com.example.smartbuy.model.InventorySummary;
 import com.example.smartbuy.model.Order;
 import com.example.smartbuy.model.Product;
+import com.example.smartbuy.model.SalesSummary;
 import com.example.smartbuy.model.User;
+import com.example.smartbuy.service.AsyncService;
+import com.example.smartbuy.service.InventoryReservationService;
 import com.example.smartbuy.util.Session;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -27,11 +33,11 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Administrator console controller
@@ -95,10 +101,15 @@ public class AdminDashboardController {
     private ProductDAO productDAO = new ProductDAO();
     private OrderDAO orderDAO = new OrderDAO();
     private UserDAO userDAO = new UserDAO();
+    // Product writes go through the reservation service so hot-product stock stays in step
+    private InventoryReservationService inventoryService = InventoryReservationService.getInstance();
     
-    private ObservableList<Product> productsList = FXCollections.observableArrayList();
-    private ObservableList<Order> ordersList = FXCollections.observableArrayList();
-    private ObservableList<User> usersList = FXCollections.observableArrayList();
+    private static final int LOW_STOCK_THRESHOLD = 10;
+    
+    // The tables fetch one page at a time, sorted and filtered by the database
+    private PagedTable<Product> productsPager;
+    private PagedTable<Order> ordersPager;
+    private PagedTable<User> usersPager;
     
     @FXML
     private void initialize() {
@@ -127,23 +138,24 @@ public class AdminDashboardController {
      * Load statistics
      */
     private void loadStatistics() {
-        try {
-            List<Product> products = productDAO.getAllProductsForAdmin();
-            int productCount = products.size();
-            int orderCount = orderDAO.getAllOrders().size();
-            
-            // Low inventory warning (inventory < 10)）
-            long lowStockCount = products.stream()
-                .filter(p -> p.getStock() < 10)
-                .count();
-            
-            totalProductsLabel.setText(String.valueOf(productCount));
-            totalOrdersLabel.setText(String.valueOf(orderCount));
-            lowStockLabel.setText(String.valueOf(lowStockCount));
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        totalProductsLabel.setText("...");
+        totalOrdersLabel.setText("...");
+        lowStockLabel.setText("...");
+        
+        // Low inventory warning (inventory < 10)
+        CompletableFuture<InventorySummary> inventory =
+            AsyncService.supply(() -> productDAO.getInventorySummary(LOW_STOCK_THRESHOLD));
+        CompletableFuture<SalesSummary> sales = AsyncService.supply(() -> orderDAO.getSalesSummary());
+        
+        inventory.thenCombineAsync(sales, (stock, summary) -> {
+            totalProductsLabel.setText(String.valueOf(stock.getProductCount()));
+            totalOrdersLabel.setText(String.valueOf(summary.getOrderCount()));
+            lowStockLabel.setText(String.valueOf(stock.getLowStockCount()));
+            return null;
+        }, Platform::runLater).exceptionally(error -> {
+            AsyncService.unwrap(error).printStackTrace();
+            return null;
+        });
     }
     
     /**
@@ -157,31 +169,37 @@ public class AdminDashboardController {
         // ID column
         TableColumn<Product, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("productId"));
+        idCol.setId("productId");
         idCol.setPrefWidth(50);
         
         // Name column
         TableColumn<Product, String> nameCol = new TableColumn<>("Product Name");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("productName"));
+        nameCol.setId("productName");
         nameCol.setPrefWidth(200);
         
         // Brand List
         TableColumn<Product, String> brandCol = new TableColumn<>("Brand");
         brandCol.setCellValueFactory(new PropertyValueFactory<>("brand"));
+        brandCol.setId("brand");
         brandCol.setPrefWidth(100);
         
         // Category Column
         TableColumn<Product, String> categoryCol = new TableColumn<>("Category");
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
+        categoryCol.setId("categoryName");
         categoryCol.setPrefWidth(100);
         
         // Price list
         TableColumn<Product, BigDecimal> priceCol = new TableColumn<>("Price");
         priceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        priceCol.setId("price");
         priceCol.setPrefWidth(80);
         
         // Inventory column
         TableColumn<Product, Integer> stockCol = new TableColumn<>("Stock");
         stockCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
+        stockCol.setId("stock");
         stockCol.setPrefWidth(60);
         
         // Status column
@@ -190,6 +208,7 @@ public class AdminDashboardController {
             new SimpleStringProperty(cellData.getValue().isAvailable() ? "In Stock" : "Out of Stock")
         );
         statusCol.setPrefWidth(80);
+        statusCol.setId("available");
         
         // Operation column
         TableColumn<Product, Void> actionCol = new TableColumn<>("Action");
@@ -236,6 +255,12 @@ public class AdminDashboardController {
         
         productsTable.getColumns().addAll(idCol, nameCol, brandCol, categoryCol, priceCol, stockCol, statusCol, actionCol);
         
+        Map<String, String> statuses = new LinkedHashMap<>();
+        statuses.put("In Stock", "available");
+        statuses.put("Out of Stock", "unavailable");
+        productsPager = new PagedTable<>(productsTable, tabPane, statuses,
+                request -> productDAO.getProductsForAdmin(request), error -> showLoadError(error, "Failed to load products"));
+        
         // Loading data
         loadProducts();
     }
@@ -249,10 +274,12 @@ public class AdminDashboardController {
         
         TableColumn<Order, Integer> idCol = new TableColumn<>("Order ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("orderId"));
+        idCol.setId("orderId");
         idCol.setPrefWidth(60);
         
         TableColumn<Order, Integer> userCol = new TableColumn<>("User ID");
         userCol.setCellValueFactory(new PropertyValueFactory<>("userId"));
+        userCol.setId("userId");
         userCol.setPrefWidth(60);
         
         TableColumn<Order, String> dateCol = new TableColumn<>("Order Date");
@@ -260,6 +287,7 @@ public class AdminDashboardController {
             new SimpleStringProperty(cellData.getValue().getOrderDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
         );
         dateCol.setPrefWidth(130);
+        dateCol.setId("orderDate");
         
         TableColumn<Order, String> addressCol = new TableColumn<>("Shipping Address");
         addressCol.setCellValueFactory(new PropertyValueFactory<>("shippingAddress"));
@@ -267,14 +295,17 @@ public class AdminDashboardController {
         
         TableColumn<Order, BigDecimal> amountCol = new TableColumn<>("Total Amount");
         amountCol.setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
+        amountCol.setId("totalAmount");
         amountCol.setPrefWidth(80);
         
         TableColumn<Order, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
+        statusCol.setId("status");
         statusCol.setPrefWidth(80);
         
         TableColumn<Order, String> paymentCol = new TableColumn<>("Payment Method");
         paymentCol.setCellValueFactory(new PropertyValueFactory<>("paymentMethod"));
+        paymentCol.setId("paymentMethod");
         paymentCol.setPrefWidth(80);
         
         TableColumn<Order, Void> detailCol = new TableColumn<>("Details");
@@ -322,35 +353,36 @@ public class AdminDashboardController {
         });
         
         ordersTable.getColumns().addAll(idCol, userCol, dateCol, addressCol, amountCol, statusCol, paymentCol, detailCol, actionCol);
+        
+        Map<String, String> statuses = new LinkedHashMap<>();
+        for (String status : new String[]{"Pending", "Paid", "Shipped", "Completed", "Cancelled"}) {
+            statuses.put(status, status);
+        }
+        ordersPager = new PagedTable<>(ordersTable, tabPane, statuses,
+                request -> orderDAO.getOrdersForAdmin(request), error -> showLoadError(error, "Failed to load orders"));
         loadOrders();
     }
     
     /**
-     * Load product data
+     * Load product data (the current page)
      */
     private void loadProducts() {
-        try {
-            List<Product> products = productDAO.getAllProductsForAdmin();
-            productsList.setAll(products);
-            productsTable.setItems(productsList);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load products");
-        }
+        productsPager.refresh();
     }
     
     /**
-     * Load order data
+     * Load order data (the current page)
      */
     private void loadOrders() {
-        try {
-            List<Order> orders = orderDAO.getAllOrders();
-            ordersList.setAll(orders);
-            ordersTable.setItems(ordersList);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load orders");
-        }
+        ordersPager.refresh();
+    }
+    
+    /**
+     * Report a table page that failed to load
+     */
+    private void showLoadError(Throwable error, String errorMessage) {
+        error.printStackTrace();
+        showAlert(Alert.AlertType.ERROR, "Error", errorMessage);
     }
     
     /**
@@ -400,7 +432,7 @@ public class AdminDashboardController {
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == yesButton) {
             try {
-                boolean success = productDAO.deleteProduct(product.getProductId());
+                boolean success = inventoryService.deleteProduct(product.getProductId());
                 if (success) {
                     showAlert(Alert.AlertType.INFORMATION, "Success", "Product deleted successfully!");
                     loadProducts();
@@ -419,7 +451,7 @@ public class AdminDashboardController {
     private void handleToggleProduct(Product product) {
         try {
             product.setAvailable(!product.isAvailable());
-            boolean success = productDAO.updateProduct(product);
+            boolean success = inventoryService.updateProduct(product);
             if (success) {
                 String status = product.isAvailable() ? "listed" : "delisted";
                 showAlert(Alert.AlertType.INFORMATION, "Success", "Product has been " + status + "!");
@@ -490,6 +522,25 @@ public class AdminDashboardController {
      * View order details
      */
     private void handleViewOrderDetail(Order order) {
+        // Table rows are headers only; read the order with its items before opening the dialog
+        AsyncService.supply(() -> orderDAO.getOrderById(order.getOrderId()))
+            .whenCompleteAsync((fullOrder, error) -> {
+                if (error != null) {
+                    AsyncService.unwrap(error).printStackTrace();
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to load order details");
+                } else if (fullOrder == null) {
+                    showAlert(Alert.AlertType.WARNING, "Notice", "This order no longer exists");
+                    loadOrders();
+                } else {
+                    showOrderDetailDialog(fullOrder);
+                }
+            }, Platform::runLater);
+    }
+    
+    /**
+     * Display the order details dialog box
+     */
+    private void showOrderDetailDialog(Order order) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/smartbuy/fxml/OrderDetailDialog.fxml"));
             Parent root = loader.load();
@@ -518,18 +569,22 @@ public class AdminDashboardController {
         
         TableColumn<User, Integer> idCol = new TableColumn<>("User ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("userId"));
+        idCol.setId("userId");
         idCol.setPrefWidth(80);
         
         TableColumn<User, String> usernameCol = new TableColumn<>("Username");
         usernameCol.setCellValueFactory(new PropertyValueFactory<>("username"));
+        usernameCol.setId("username");
         usernameCol.setPrefWidth(120);
         
         TableColumn<User, String> nameCol = new TableColumn<>("Full Name");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("fullName"));
+        nameCol.setId("fullName");
         nameCol.setPrefWidth(120);
         
         TableColumn<User, String> emailCol = new TableColumn<>("Email");
         emailCol.setCellValueFactory(new PropertyValueFactory<>("email"));
+        emailCol.setId("email");
         emailCol.setPrefWidth(200);
         
         TableColumn<User, String> phoneCol = new TableColumn<>("Phone");
@@ -542,6 +597,7 @@ public class AdminDashboardController {
         
         TableColumn<User, String> roleCol = new TableColumn<>("Role");
         roleCol.setCellValueFactory(new PropertyValueFactory<>("role"));
+        roleCol.setId("role");
         roleCol.setPrefWidth(80);
         
         TableColumn<User, String> dateCol = new TableColumn<>("Registration Date");
@@ -549,8 +605,15 @@ public class AdminDashboardController {
             new SimpleStringProperty(cellData.getValue().getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")))
         );
         dateCol.setPrefWidth(150);
+        dateCol.setId("createdAt");
         
         usersTable.getColumns().addAll(idCol, usernameCol, nameCol, emailCol, phoneCol, addressCol, roleCol, dateCol);
+        
+        Map<String, String> roles = new LinkedHashMap<>();
+        roles.put("Customer", "customer");
+        roles.put("Admin", "admin");
+        usersPager = new PagedTable<>(usersTable, tabPane, roles,
+                request -> userDAO.getUsersForAdmin(request), error -> showLoadError(error, "Failed to load user list"));
         loadUsers();
     }
     
@@ -558,95 +621,71 @@ public class AdminDashboardController {
      * Load user data
      */
     private void loadUsers() {
-        try {
-            List<User> users = userDAO.getAllUsers();
-            usersList.setAll(users);
-            usersTable.setItems(usersList);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load user list");
-        }
+        usersPager.refresh();
     }
     
     /**
      * Load sales report data
      */
     private void loadSalesReport() {
-        try {
-            List<Order> orders = orderDAO.getAllOrders();
-            
-            // Total number of orders
-            int totalOrders = orders.size();
-            totalOrderCountLabel.setText(String.valueOf(totalOrders));
-            
-            // Total sales
-            BigDecimal totalRevenue = orders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            totalRevenueLabel.setText("￥" + totalRevenue);
-            
-            // Total sales (units)
-            int totalItems = orders.stream()
-                .flatMap(order -> order.getOrderItems().stream())
-                .mapToInt(item -> item.getQuantity())
-                .sum();
-            totalItemsSoldLabel.setText(String.valueOf(totalItems));
-            
-            // Statistics by Category
-            loadCategoryStatistics();
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        AsyncService.supply(() -> orderDAO.getSalesSummary())
+            .whenCompleteAsync((summary, error) -> {
+                if (error != null) {
+                    AsyncService.unwrap(error).printStackTrace();
+                    return;
+                }
+                
+                // Total number of orders
+                totalOrderCountLabel.setText(String.valueOf(summary.getOrderCount()));
+                
+                // Total sales
+                totalRevenueLabel.setText("￥" + summary.getTotalRevenue());
+                
+                // Total sales (units)
+                totalItemsSoldLabel.setText(String.valueOf(summary.getTotalItemsSold()));
+            }, Platform::runLater);
+        
+        // Statistics by Category
+        loadCategoryStatistics(null, null);
     }
     
     /**
      * Load category statistics
+     * @param from First order date to include, or null for all history
+     * @param to Last order date to include, or null for all history
      */
-    @SuppressWarnings("unchecked")
-    private void loadCategoryStatistics() {
-        try {
-            Map<String, CategoryStat> categoryStats = new HashMap<>();
-            List<Order> orders = orderDAO.getAllOrders();
-            
-            // Category needs to be obtained through product information
-            ProductDAO productDAO = new ProductDAO();
-            
-            for (Order order : orders) {
-                for (var item : order.getOrderItems()) {
-                    // Obtain category information from the product list
-                    Product product = productDAO.getProductById(item.getProductId());
-                    if (product != null) {
-                        String category = product.getCategoryName();
-                        categoryStats.putIfAbsent(category, new CategoryStat(category));
-                        CategoryStat stat = categoryStats.get(category);
-                        stat.addQuantity(item.getQuantity());
-                        stat.addRevenue(item.getSubtotal());
-                    }
-                }
+    private void loadCategoryStatistics(LocalDate from, LocalDate to) {
+        AsyncService.supply(() -> orderDAO.getCategoryStats(from, to)).whenCompleteAsync((stats, error) -> {
+            if (error != null) {
+                AsyncService.unwrap(error).printStackTrace();
+                return;
             }
-            
-            categoryStatsTable.getColumns().clear();
-            
-            TableColumn<CategoryStat, String> catCol = new TableColumn<>("Category");
-            catCol.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
-            catCol.setPrefWidth(150);
-            
-            TableColumn<CategoryStat, Integer> qtyCol = new TableColumn<>("Sales Volume");
-            qtyCol.setCellValueFactory(new PropertyValueFactory<>("totalQuantity"));
-            qtyCol.setPrefWidth(100);
-            
-            TableColumn<CategoryStat, BigDecimal> revenueCol = new TableColumn<>("Revenue");
-            revenueCol.setCellValueFactory(new PropertyValueFactory<>("totalRevenue"));
-            revenueCol.setPrefWidth(150);
-            
-            categoryStatsTable.getColumns().addAll(catCol, qtyCol, revenueCol);
-            ObservableList<CategoryStat> statsList = FXCollections.observableArrayList(categoryStats.values());
-            categoryStatsTable.setItems(statsList);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+            showCategoryStatistics(stats);
+        }, Platform::runLater);
+    }
+    
+    /**
+     * Fill the category statistics table
+     */
+    @SuppressWarnings("unchecked")
+    private void showCategoryStatistics(List<CategoryStat> stats) {
+        categoryStatsTable.getColumns().clear();
+        
+        TableColumn<CategoryStat, String> catCol = new TableColumn<>("Category");
+        catCol.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
+        catCol.setPrefWidth(150);
+        
+        TableColumn<CategoryStat, Integer> qtyCol = new TableColumn<>("Sales Volume");
+        qtyCol.setCellValueFactory(new PropertyValueFactory<>("totalQuantity"));
+        qtyCol.setPrefWidth(100);
+        
+        TableColumn<CategoryStat, BigDecimal> revenueCol = new TableColumn<>("Revenue");
+        revenueCol.setCellValueFactory(new PropertyValueFactory<>("totalRevenue"));
+        revenueCol.setPrefWidth(150);
+        
+        categoryStatsTable.getColumns().addAll(catCol, qtyCol, revenueCol);
+        ObservableList<CategoryStat> statsList = FXCollections.observableArrayList(stats);
+        categoryStatsTable.setItems(statsList);
     }
     
     /**
@@ -667,56 +706,19 @@ public class AdminDashboardController {
             return;
         }
         
-        try {
-            List<Order> allOrders = orderDAO.getAllOrders();
-            List<Order> filteredOrders = new ArrayList<>();
-            for (Order order : allOrders) {
-                LocalDate orderDate = order.getOrderDate().toLocalDate();
-                if (!orderDate.isBefore(startDate) && !orderDate.isAfter(endDate)) {
-                    filteredOrders.add(order);
+        AsyncService.supply(() -> orderDAO.getSalesSummary(startDate, endDate))
+            .whenCompleteAsync((summary, error) -> {
+                if (error != null) {
+                    AsyncService.unwrap(error).printStackTrace();
+                    showAlert(Alert.AlertType.ERROR, "Error", "Query failed");
+                    return;
                 }
-            }
-            
-            int count = filteredOrders.size();
-            BigDecimal revenue = BigDecimal.ZERO;
-            for (Order order : filteredOrders) {
-                revenue = revenue.add(order.getTotalAmount());
-            }
-            
-            dateRangeOrderCountLabel.setText(String.valueOf(count));
-            dateRangeRevenueLabel.setText("￥" + revenue);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Query failed");
-        }
-    }
-    
-    /**
-     * Classification and statistics internal class
-     */
-    public static class CategoryStat {
-        private String categoryName;
-        private int totalQuantity;
-        private BigDecimal totalRevenue;
-        
-        public CategoryStat(String categoryName) {
-            this.categoryName = categoryName;
-            this.totalQuantity = 0;
-            this.totalRevenue = BigDecimal.ZERO;
-        }
-        
-        public void addQuantity(int qty) {
-            this.totalQuantity += qty;
-        }
-        
-        public void addRevenue(BigDecimal amount) {
-            this.totalRevenue = this.totalRevenue.add(amount);
-        }
+                
+                dateRangeOrderCountLabel.setText(String.valueOf(summary.getOrderCount()));
+                dateRangeRevenueLabel.setText("￥" + summary.getTotalRevenue());
+            }, Platform::runLater);
         
-        public String getCategoryName() { return categoryName; }
-        public int getTotalQuantity() { return totalQuantity; }
-        public BigDecimal getTotalRevenue() { return totalRevenue; }
+        loadCategoryStatistics(startDate, endDate);
     }
     
     /**
@@ -2,7 +2,11 @@ package com.example.smartbuy.controller;
 
 import com.example.smartbuy.dao.CartDAO;
 import com.example.smartbuy.model.CartItem;
+import com.example.smartbuy.service.AsyncService;
+import com.example.smartbuy.service.CartWriteBuffer;
+import com.example.smartbuy.service.LatestRequest;
 import com.example.smartbuy.util.Session;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -16,8 +20,13 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Shopping cart controller
@@ -43,7 +52,18 @@ public class CartController {
     private Button checkoutButton;
     
     private CartDAO cartDAO = new CartDAO();
-    private List<CartItem> cartItems;
+    private CartWriteBuffer cartBuffer = CartWriteBuffer.getInstance();
+    private List<CartItem> cartItems = new ArrayList<>();
+    
+    // Row controls per cart_id, so an edit patches one row instead of rebuilding the list
+    private final Map<Integer, CartRow> rows = new HashMap<>();
+    
+    // Summary totals, kept up to date by each edit
+    private int totalItems;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    // A reload started after an edit replaces any reload still in flight
+    private final LatestRequest<List<CartItem>> cartRequest = new LatestRequest<>();
     
     @FXML
     private void initialize() {
@@ -70,44 +90,66 @@ public class CartController {
     
     /**
      * Load items into shopping cart
+     * Only for the first display, or when the cart may have changed elsewhere;
+     * edits on this page patch the loaded cart in place.
      */
     private void loadCartItems() {
         if (!Session.getInstance().isLoggedIn()) {
             return; // Prevent subsequent operations from being performed while not logged in.
         }
         
-        try {
-            int userId = Session.getInstance().getCurrentUser().getUserId();
-            cartItems = cartDAO.getCartItems(userId);
-            
-            if (cartItems.isEmpty()) {
-                cartItemsContainer.setVisible(false);
-                emptyCartMessage.setVisible(true);
-                checkoutButton.setDisable(true);
-            } else {
-                cartItemsContainer.setVisible(true);
-                emptyCartMessage.setVisible(false);
-                checkoutButton.setDisable(false);
-                displayCartItems();
-                updateSummary();
+        int userId = Session.getInstance().getCurrentUser().getUserId();
+        
+        // Loading indicator until the query returns
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setMaxSize(50, 50);
+        cartItemsContainer.getChildren().setAll(indicator);
+        cartItemsContainer.setVisible(true);
+        emptyCartMessage.setVisible(false);
+        checkoutButton.setDisable(true);
+        
+        CompletableFuture<List<CartItem>> request = cartRequest.submit(() -> {
+            // Write buffered quantity changes first so the reload reflects them
+            cartBuffer.flush();
+            return cartDAO.getCartItems(userId);
+        });
+        request.whenCompleteAsync((items, error) -> {
+            if (!cartRequest.isLatest(request)) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = AsyncService.unwrap(error);
+                cause.printStackTrace();
+                cartItemsContainer.getChildren().clear();
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to load cart: " + cause.getMessage());
+                return;
             }
             
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load cart: " + e.getMessage());
-        }
+            cartItems = items;
+            displayCartItems();
+            
+            totalItems = 0;
+            totalAmount = BigDecimal.ZERO;
+            for (CartItem item : cartItems) {
+                totalItems += item.getQuantity();
+                totalAmount = totalAmount.add(item.getSubtotal());
+            }
+            // Freshly read, so it also corrects the session's cart count
+            Session.getInstance().setCartItemCount(totalItems);
+            updateSummary();
+        }, Platform::runLater);
     }
     
     /**
      * Show items in shopping cart
      */
     private void displayCartItems() {
-        cartItemsContainer.getChildren().clear();
-        
+        rows.clear();
+        List<HBox> boxes = new ArrayList<>(cartItems.size());
         for (CartItem item : cartItems) {
-            HBox itemBox = createCartItemBox(item);
-            cartItemsContainer.getChildren().add(itemBox);
+            boxes.add(createCartItemBox(item));
         }
+        cartItemsContainer.getChildren().setAll(boxes);
     }
     
     /**
@@ -132,7 +174,7 @@ public class CartController {
         Label brandLabel = new Label("Brand: " + item.getBrand());
         brandLabel.setStyle("-fx-font-size: 13; -fx-text-fill: #666;");
         
-        Label priceLabel = new Label("Unit Price: ¥" + item.getPrice().setScale(2, BigDecimal.ROUND_HALF_UP));
+        Label priceLabel = new Label("Unit Price: ¥" + item.getPrice().setScale(2, RoundingMode.HALF_UP));
         priceLabel.setStyle("-fx-font-size: 14; -fx-text-fill: #f44336;");
         
         infoBox.getChildren().addAll(nameLabel, brandLabel, priceLabel);
@@ -163,7 +205,7 @@ public class CartController {
         quantityBox.getChildren().addAll(decreaseBtn, quantityField, increaseBtn);
         
         // Subtotal
-        Label subtotalLabel = new Label("Subtotal: ¥" + item.getSubtotal().setScale(2, BigDecimal.ROUND_HALF_UP));
+        Label subtotalLabel = new Label("Subtotal: ¥" + item.getSubtotal().setScale(2, RoundingMode.HALF_UP));
         // Widen the subtotal column to ensure the full amount is displayed.
         subtotalLabel.setPrefWidth(170);
         subtotalLabel.setAlignment(Pos.CENTER_RIGHT);
@@ -177,6 +219,7 @@ public class CartController {
         
         box.getChildren().addAll(infoBox, spacer, quantityBox, subtotalLabel, deleteBtn);
         
+        rows.put(item.getCartId(), new CartRow(box, quantityField, subtotalLabel));
         return box;
     }
     
@@ -189,15 +232,20 @@ public class CartController {
             return;
         }
         
-        try {
-            boolean success = cartDAO.updateCartItemQuantity(item.getCartId(), newQuantity);
-            if (success) {
-                loadCartItems();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to update quantity");
+        // Shown at once; the write is coalesced with further clicks by the buffer
+        int delta = newQuantity - item.getQuantity();
+        item.setQuantity(newQuantity);
+        cartBuffer.setQuantity(item.getCartId(), newQuantity);
+        
+        CartRow row = rows.get(item.getCartId());
+        if (row != null) {
+            row.quantityField.setText(String.valueOf(newQuantity));
+            row.subtotalLabel.setText("Subtotal: ¥" + item.getSubtotal().setScale(2, RoundingMode.HALF_UP));
         }
+        totalItems += delta;
+        totalAmount = totalAmount.add(item.getPrice().multiply(BigDecimal.valueOf(delta)));
+        Session.getInstance().adjustCartItemCount(delta);
+        updateSummary();
     }
     
     /**
@@ -216,8 +264,20 @@ public class CartController {
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == yesButton) {
             try {
+                cartBuffer.discard(item.getCartId());
                 boolean success = cartDAO.removeFromCart(item.getCartId());
                 if (success) {
+                    CartRow row = rows.remove(item.getCartId());
+                    if (row != null) {
+                        cartItemsContainer.getChildren().remove(row.box);
+                    }
+                    cartItems.remove(item);
+                    totalItems -= item.getQuantity();
+                    totalAmount = totalAmount.subtract(item.getSubtotal());
+                    Session.getInstance().adjustCartItemCount(-item.getQuantity());
+                    updateSummary();
+                } else {
+                    // Already gone, so the cart was changed elsewhere: load it again
                     loadCartItems();
                 }
             } catch (Exception e) {
@@ -231,17 +291,14 @@ public class CartController {
      * Update order summary
      */
     private void updateSummary() {
-        int totalItems = 0;
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        
-        for (CartItem item : cartItems) {
-            totalItems += item.getQuantity();
-            totalAmount = totalAmount.add(item.getSubtotal());
-        }
+        boolean empty = cartItems.isEmpty();
+        cartItemsContainer.setVisible(!empty);
+        emptyCartMessage.setVisible(empty);
+        checkoutButton.setDisable(empty);
         
         itemCountLabel.setText(totalItems + " items");
-        subtotalLabel.setText("¥" + totalAmount.setScale(2, BigDecimal.ROUND_HALF_UP));
-        totalLabel.setText("¥" + totalAmount.setScale(2, BigDecimal.ROUND_HALF_UP));
+        subtotalLabel.setText("¥" + totalAmount.setScale(2, RoundingMode.HALF_UP));
+        totalLabel.setText("¥" + totalAmount.setScale(2, RoundingMode.HALF_UP));
     }
     
     /**
@@ -266,8 +323,19 @@ public class CartController {
         if (result.isPresent() && result.get() == yesButton) {
             try {
                 int userId = Session.getInstance().getCurrentUser().getUserId();
+                for (CartItem item : cartItems) {
+                    cartBuffer.discard(item.getCartId());
+                }
                 boolean success = cartDAO.clearCart(userId);
                 if (success) {
+                    cartItems = new ArrayList<>();
+                    rows.clear();
+                    cartItemsContainer.getChildren().clear();
+                    totalItems = 0;
+                    totalAmount = BigDecimal.ZERO;
+                    Session.getInstance().setCartItemCount(0);
+                    updateSummary();
+                } else {
                     loadCartItems();
                 }
             } catch (Exception e) {
@@ -300,6 +368,8 @@ public class CartController {
             return;
         }
         
+        cartBuffer.flushAsync();
+        
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/smartbuy/fxml/Checkout.fxml"));
             Parent root = loader.load();
@@ -319,6 +389,8 @@ public class CartController {
      */
     @FXML
     private void handleBackToHome() {
+        cartBuffer.flushAsync();
+        
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/smartbuy/fxml/Home.fxml"));
             Parent root = loader.load();
@@ -337,6 +409,7 @@ public class CartController {
      */
     @FXML
     private void handleLogout() {
+        cartBuffer.flushAsync();
         Session.getInstance().logout();
         
         try {
@@ -374,4 +447,19 @@ public class CartController {
         
         alert.showAndWait();
     }
+    
+    /**
+     * Controls of one cart row that an edit updates
+     */
+    private static class CartRow {
+        private final HBox box;
+        private final TextField quantityField;
+        private final Label subtotalLabel;
+        
+        CartRow(HBox box, TextField quantityField, Label subtotalLabel) {
+            this.box = box;
+            this.quantityField = quantityField;
+            this.subtotalLabel = subtotalLabel;
+        }
+    }
 }
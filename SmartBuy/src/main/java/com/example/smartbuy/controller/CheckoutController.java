@@ -1,13 +1,16 @@
 package com.example.smartbuy.controller;
 
 import com.example.smartbuy.dao.CartDAO;
-import com.example.smartbuy.dao.OrderDAO;
 import com.example.smartbuy.dao.ProductDAO;
 import com.example.smartbuy.model.CartItem;
+import com.example.smartbuy.model.CheckoutResult;
 import com.example.smartbuy.model.Order;
 import com.example.smartbuy.model.OrderItem;
-import com.example.smartbuy.model.Product;
+import com.example.smartbuy.service.AsyncService;
+import com.example.smartbuy.service.CartWriteBuffer;
+import com.example.smartbuy.service.InventoryReservationService;
 import com.example.smartbuy.util.Session;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -20,13 +23,10 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
-import com.example.smartbuy.util.DatabaseUtil;
-
 /**
  * Order settlement controller
  */
@@ -60,7 +60,8 @@ public class CheckoutController {
     private Button submitOrderButton;
     
     private CartDAO cartDAO = new CartDAO();
-    private OrderDAO orderDAO = new OrderDAO();
+    private CartWriteBuffer cartBuffer = CartWriteBuffer.getInstance();
+    private InventoryReservationService inventoryService = InventoryReservationService.getInstance();
     private ProductDAO productDAO = new ProductDAO();
     
     private List<CartItem> cartItems;
@@ -122,23 +123,40 @@ public class CheckoutController {
             return;
         }
         
-        try {
-            int userId = Session.getInstance().getCurrentUser().getUserId();
-            cartItems = cartDAO.getCartItems(userId);
-            
-            if (cartItems.isEmpty()) {
-                showAlert(Alert.AlertType.WARNING, "Notice", "Cart is empty, please add items first");
-                handleBackToCart();
-                return;
-            }
-            
-            displayOrderItems();
-            updateSummary();
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load order: " + e.getMessage());
-        }
+        int userId = Session.getInstance().getCurrentUser().getUserId();
+        
+        // Loading indicator; the order cannot be submitted until the items are in
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setMaxSize(50, 50);
+        orderItemsContainer.getChildren().setAll(indicator);
+        submitOrderButton.setDisable(true);
+        
+        AsyncService.supply(() -> {
+                // Quantity changes made on the cart page may still be buffered
+                cartBuffer.flush();
+                return cartDAO.getCartItems(userId);
+            })
+            .whenCompleteAsync((items, error) -> {
+                orderItemsContainer.getChildren().clear();
+                if (error != null) {
+                    Throwable cause = AsyncService.unwrap(error);
+                    cause.printStackTrace();
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to load order: " + cause.getMessage());
+                    return;
+                }
+                
+                cartItems = items;
+                
+                if (cartItems.isEmpty()) {
+                    showAlert(Alert.AlertType.WARNING, "Notice", "Cart is empty, please add items first");
+                    handleBackToCart();
+                    return;
+                }
+                
+                displayOrderItems();
+                updateSummary();
+                submitOrderButton.setDisable(false);
+            }, Platform::runLater);
     }
     
     /**
@@ -236,100 +254,98 @@ public class CheckoutController {
         RadioButton selectedPayment = (RadioButton) paymentMethodGroup.getSelectedToggle();
         String paymentMethod = selectedPayment.getUserData().toString();
         
-        try {
-            int userId = Session.getInstance().getCurrentUser().getUserId();
-            
-            // Check inventory
-            for (CartItem item : cartItems) {
-                Product product = productDAO.getProductById(item.getProductId());
-                if (product.getStock() < item.getQuantity()) {
-                    showAlert(Alert.AlertType.ERROR, "Insufficient Stock", 
-                             product.getProductName() + " Insufficient stock!\nCurrent stock: " + product.getStock());
+        int userId = Session.getInstance().getCurrentUser().getUserId();
+        
+        // Create an order
+        Order order = new Order(userId, totalAmount, shippingAddress, paymentMethod);
+        
+        // Add order details
+        for (CartItem item : cartItems) {
+            OrderItem orderItem = new OrderItem(
+                item.getProductId(),
+                item.getProductName(),
+                item.getQuantity(),
+                item.getPrice()
+            );
+            order.addOrderItem(orderItem);
+        }
+        
+        // Block double submission while the order is being written
+        String submitText = submitOrderButton.getText();
+        submitOrderButton.setDisable(true);
+        submitOrderButton.setText("Submitting...");
+        
+        AsyncService.supply(() -> submitOrder(userId, order))
+            .whenCompleteAsync((result, error) -> {
+                submitOrderButton.setDisable(false);
+                submitOrderButton.setText(submitText);
+                
+                if (error != null) {
+                    Throwable cause = AsyncService.unwrap(error);
+                    cause.printStackTrace();
+                    showAlert(Alert.AlertType.ERROR, "Error", "Order submission failed: " + cause.getMessage());
                     return;
                 }
-            }
-            
-            // Create an order
-            Order order = new Order(userId, totalAmount, shippingAddress, paymentMethod);
-            
-            // Add order details
-            for (CartItem item : cartItems) {
-                OrderItem orderItem = new OrderItem(
-                    item.getProductId(),
-                    item.getProductName(),
-                    item.getQuantity(),
-                    item.getPrice()
-                );
-                order.addOrderItem(orderItem);
-            }
-            
-            // Save the order and deduct the inventory
-            int orderId = createOrderAndUpdateStock(order);
-            
-            if (orderId > 0) {
-                // Empty shopping cart
-                cartDAO.clearCart(userId);
-                
-                // Success message displayed
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Order Submitted Successfully");
-                successAlert.setHeaderText("Congratulations, your order has been submitted successfully!");
-                successAlert.setContentText("Order ID: " + orderId + "\nTotal Amount: ¥" + totalAmount + 
-                                           "\n\nYou can view order details in order history.");
-                
-                // Set the button text to English.
-                ButtonType okButton = new ButtonType("OK");
-                successAlert.getButtonTypes().setAll(okButton);
                 
-                successAlert.showAndWait();
+                if (!result.getShortfalls().isEmpty()) {
+                    StringBuilder message = new StringBuilder();
+                    for (CheckoutResult.Shortfall shortfall : result.getShortfalls()) {
+                        message.append(shortfall.getProductName()).append(" Insufficient stock!")
+                               .append("\nRequested: ").append(shortfall.getRequested())
+                               .append(", current stock: ").append(shortfall.getAvailable()).append("\n");
+                    }
+                    showAlert(Alert.AlertType.ERROR, "Insufficient Stock", message.toString().trim());
+                    return;
+                }
                 
-                // Return to homepage
-                handleBackToHome();
-            }
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Order submission failed: " + e.getMessage());
-        }
+                if (result.isPlaced()) {
+                    // submitOrder emptied the cart
+                    Session.getInstance().setCartItemCount(0);
+                    
+                    // Success message displayed
+                    Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                    successAlert.setTitle("Order Submitted Successfully");
+                    successAlert.setHeaderText("Congratulations, your order has been submitted successfully!");
+                    successAlert.setContentText("Order ID: " + result.getOrderId() + "\nTotal Amount: ¥" + order.getTotalAmount() + 
+                                               "\n\nYou can view order details in order history.");
+                    
+                    // Set the button text to English.
+                    ButtonType okButton = new ButtonType("OK");
+                    successAlert.getButtonTypes().setAll(okButton);
+                    
+                    successAlert.showAndWait();
+                    
+                    // Return to homepage
+                    handleBackToHome();
+                }
+            }, Platform::runLater);
     }
     
     /**
-     * Create an order and update inventory (transaction processing)
+     * Save the order, deduct the inventory and empty the cart (runs off the FX thread)
      */
-    private int createOrderAndUpdateStock(Order order) throws SQLException {
-        Connection conn = null;
+    private CheckoutResult submitOrder(int userId, Order order) throws SQLException {
+        // Stock is checked and taken inside the order transaction (hot products from memory)
+        CheckoutResult result = inventoryService.checkout(order);
+        if (!result.isPlaced()) {
+            return result;
+        }
+        
+        // Stock changed outside ProductDAO, so refresh its cache and search index
+        List<Integer> productIds = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            productIds.add(item.getProductId());
+        }
         try {
-            conn = DatabaseUtil.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Create an order
-            int orderId = orderDAO.createOrder(order);
-            
-            // Deduct inventory
-            String updateStockSql = "UPDATE products SET stock = stock - ? WHERE product_id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateStockSql)) {
-                for (OrderItem item : order.getOrderItems()) {
-                    pstmt.setInt(1, item.getQuantity());
-                    pstmt.setInt(2, item.getProductId());
-                    pstmt.addBatch();
-                }
-                pstmt.executeBatch();
-            }
-            
-            conn.commit();
-            return orderId;
-            
+            productDAO.productsChanged(productIds);
         } catch (SQLException e) {
-            if (conn != null) {
-                conn.rollback();
-            }
-            throw e;
-        } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-                conn.close();
-            }
+            // The order is committed; stale cache entries expire on their own
+            e.printStackTrace();
         }
+        
+        // Empty shopping cart
+        cartDAO.clearCart(userId);
+        return result;
     }
     
     /**
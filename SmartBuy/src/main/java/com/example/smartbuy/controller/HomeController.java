@@ -4,12 +4,21 @@ import com.example.smartbuy.dao.CartDAO;
 import com.example.smartbuy.dao.CategoryDAO;
 import com.example.smartbuy.dao.ProductDAO;
 import com.example.smartbuy.model.Category;
-import com.example.smartbuy.model.Product;
+import com.example.smartbuy.model.Page;
+import com.example.smartbuy.model.ProductFilter;
+import com.example.smartbuy.model.ProductSummary;
+import com.example.smartbuy.service.AsyncService;
+import com.example.smartbuy.service.CartWriteBuffer;
+import com.example.smartbuy.service.GuestCart;
+import com.example.smartbuy.service.LatestRequest;
 import com.example.smartbuy.util.Session;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Side;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -18,13 +27,14 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * User Homepage Controller
@@ -76,9 +86,29 @@ public class HomeController {
     private ProductDAO productDAO = new ProductDAO();
     private CategoryDAO categoryDAO = new CategoryDAO();
     private CartDAO cartDAO = new CartDAO();
+    private CartWriteBuffer cartBuffer = CartWriteBuffer.getInstance();
     
     private int currentCategoryId = -1;
-    private List<Product> allProducts = new ArrayList<>();
+    private List<ProductSummary> allProducts = new ArrayList<>();
+    // Price range, brand and sort applied by the database to the current category
+    private ProductFilter currentFilter = ProductFilter.NONE;
+    
+    // Category loads and searches share one slot, so a newer request cancels the older one
+    private final LatestRequest<ProductListing> productRequest = new LatestRequest<>();
+    
+    // Products are fetched a page at a time as the grid is scrolled (4 cards per row)
+    private static final int PAGE_SIZE = 24;
+    private String nextPageToken;
+    private boolean loadingPage;
+    private boolean showingListing;
+    private ScrollPane productScrollPane;
+    
+    // Suggestions are looked up once typing pauses; a newer lookup replaces an older one
+    private static final int SUGGESTION_LIMIT = 8;
+    private final PauseTransition suggestionDelay = new PauseTransition(Duration.millis(250));
+    private final LatestRequest<List<String>> suggestionRequest = new LatestRequest<>();
+    private final ContextMenu suggestionMenu = new ContextMenu();
+    private boolean applyingSuggestion;
     
     @FXML
     private void initialize() {
@@ -95,11 +125,89 @@ public class HomeController {
         // Initialize the filter control
         initializeFilters();
         
+        // Type-ahead suggestions for the search box
+        initializeSuggestions();
+        
         // Load popular products
         loadHotProducts();
         
         // Load all products
         loadProducts(-1);
+        
+        // Build the search and suggestion indexes in the background so the first search is fast
+        AsyncService.run(() -> {
+            productDAO.warmSearchIndex();
+            return null;
+        }).exceptionally(error -> {
+            AsyncService.unwrap(error).printStackTrace();
+            return null;
+        });
+    }
+    
+    /**
+     * Show suggestions under the search box as the user types
+     */
+    private void initializeSuggestions() {
+        suggestionDelay.setOnFinished(e -> requestSuggestions(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            if (applyingSuggestion) {
+                return;
+            }
+            if (newText == null || newText.trim().isEmpty()) {
+                suggestionDelay.stop();
+                suggestionRequest.cancel();
+                suggestionMenu.hide();
+                return;
+            }
+            suggestionDelay.playFromStart();
+        });
+        searchField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                suggestionMenu.hide();
+            }
+        });
+    }
+    
+    /**
+     * Look up suggestions in the background and show them if the text has not changed since
+     */
+    private void requestSuggestions(String prefix) {
+        CompletableFuture<List<String>> request = suggestionRequest.submit(
+            () -> productDAO.getSuggestions(prefix, SUGGESTION_LIMIT));
+        request.whenCompleteAsync((suggestions, error) -> {
+            if (!suggestionRequest.isLatest(request) || !prefix.equals(searchField.getText())) {
+                return;
+            }
+            if (error != null) {
+                // Suggestions are optional; searching still works without them
+                AsyncService.unwrap(error).printStackTrace();
+                return;
+            }
+            showSuggestions(suggestions);
+        }, Platform::runLater);
+    }
+    
+    private void showSuggestions(List<String> suggestions) {
+        if (suggestions.isEmpty() || !searchField.isFocused()) {
+            suggestionMenu.hide();
+            return;
+        }
+        List<MenuItem> items = new ArrayList<>();
+        for (String suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion);
+            item.setOnAction(e -> {
+                applyingSuggestion = true;
+                searchField.setText(suggestion);
+                searchField.positionCaret(suggestion.length());
+                applyingSuggestion = false;
+                handleSearch();
+            });
+            items.add(item);
+        }
+        suggestionMenu.getItems().setAll(items);
+        if (!suggestionMenu.isShowing()) {
+            suggestionMenu.show(searchField, Side.BOTTOM, 0, 0);
+        }
     }
     
     /**
@@ -109,7 +217,7 @@ public class HomeController {
         // Sort options
         sortCombo.getItems().addAll("Price: Low to High", "Price: High to Low", "Sales Volume");
         
-        // The brand options will be dynamically populated after the products are loaded.
+        // The brand options are read from the database for each category
         brandCombo.getItems().add("All Brands");
     }
     
@@ -117,29 +225,28 @@ public class HomeController {
      * Load popular products (sorted by inventory or sales volume; here, low inventory is used as the popular category).
      */
     private void loadHotProducts() {
-        try {
-            List<Product> allProducts = productDAO.getAllProducts();
-            // Select the top 5 products as popular recommendations.
-            List<Product> hotProducts = allProducts.stream()
-                .limit(5)
-                .collect(Collectors.toList());
-            
-            hotProductsBox.getChildren().clear();
-            
-            for (Product product : hotProducts) {
-                VBox hotCard = createHotProductCard(product);
-                hotProductsBox.getChildren().add(hotCard);
-            }
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        hotProductsBox.getChildren().setAll(createLoadingIndicator());
+        
+        // Select the top 5 products as popular recommendations.
+        AsyncService.supply(() -> productDAO.getProductsPage(null, null, 5))
+            .whenCompleteAsync((page, error) -> {
+                hotProductsBox.getChildren().clear();
+                if (error != null) {
+                    AsyncService.unwrap(error).printStackTrace();
+                    return;
+                }
+                
+                for (ProductSummary product : page.getItems()) {
+                    VBox hotCard = createHotProductCard(product);
+                    hotProductsBox.getChildren().add(hotCard);
+                }
+            }, Platform::runLater);
     }
     
     /**
      * Create popular product cards (simplified version)）
      */
-    private VBox createHotProductCard(Product product) {
+    private VBox createHotProductCard(ProductSummary product) {
         VBox card = new VBox(8);
         card.setAlignment(Pos.CENTER);
         card.setStyle("-fx-background-color: white; -fx-background-radius: 5; -fx-padding: 10; -fx-cursor: hand;");
@@ -186,58 +293,179 @@ public class HomeController {
     
     /**
      * Load products
+     * Switching category starts without filters, like the baseline listing did.
      */
     private void loadProducts(int categoryId) {
-        try {
-            currentCategoryId = categoryId;
-            
+        currentCategoryId = categoryId;
+        resetFilterControls();
+        currentFilter = ProductFilter.NONE;
+        
+        // Update brand list
+        updateBrandList();
+        
+        loadListing();
+    }
+    
+    /**
+     * Load the first page of the current category with the current filter
+     */
+    private void loadListing() {
+        int categoryId = currentCategoryId;
+        ProductFilter filter = currentFilter;
+        nextPageToken = null;
+        loadingPage = false;
+        showingListing = false;
+        
+        submitProductRequest(() -> {
             if (categoryId == -1) {
-                allProducts = productDAO.getAllProducts();
-                categoryLabel.setText("All Products");
-            } else {
-                allProducts = productDAO.getProductsByCategory(categoryId);
-                Category category = categoryDAO.getCategoryById(categoryId);
-                categoryLabel.setText(category != null ? category.getCategoryName() : "Product List");
+                return new ProductListing("All Products", productDAO.getProductsPage(null, filter, null, PAGE_SIZE));
             }
-            
-            // Update brand list
-            updateBrandList();
+            Category category = categoryDAO.getCategoryById(categoryId);
+            return new ProductListing(category != null ? category.getCategoryName() : "Product List",
+                    productDAO.getProductsPage(categoryId, filter, null, PAGE_SIZE));
+        }, listing -> {
+            allProducts = new ArrayList<>(listing.products);
+            nextPageToken = listing.nextPageToken;
             
             displayProducts(allProducts);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load products: " + e.getMessage());
+            showingListing = true;
+            watchScrollPosition();
+        }, "Failed to load products: ");
+    }
+    
+    /**
+     * Fetch the next page of the current listing and append it to the grid
+     */
+    private void loadNextPage() {
+        if (loadingPage || !showingListing || nextPageToken == null) {
+            return;
         }
+        loadingPage = true;
+        
+        String token = nextPageToken;
+        Integer categoryId = currentCategoryId == -1 ? null : currentCategoryId;
+        ProductFilter filter = currentFilter;
+        String title = categoryLabel.getText();
+        CompletableFuture<ProductListing> request = productRequest.submit(
+                () -> new ProductListing(title, productDAO.getProductsPage(categoryId, filter, token, PAGE_SIZE)));
+        request.whenCompleteAsync((listing, error) -> {
+            if (!productRequest.isLatest(request)) {
+                return;
+            }
+            loadingPage = false;
+            if (error != null) {
+                AsyncService.unwrap(error).printStackTrace();
+                return;
+            }
+            nextPageToken = listing.nextPageToken;
+            int start = allProducts.size();
+            allProducts.addAll(listing.products);
+            if (showingListing) {
+                addProductCards(listing.products, start);
+            }
+        }, Platform::runLater);
+    }
+    
+    /**
+     * Load the next page when the grid is scrolled close to the bottom
+     * The grid only gets its ScrollPane once the scene is shown, so this hooks in after the first page.
+     */
+    private void watchScrollPosition() {
+        if (productScrollPane != null) {
+            return;
+        }
+        for (Parent parent = productGrid.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent instanceof ScrollPane) {
+                productScrollPane = (ScrollPane) parent;
+                productScrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= productScrollPane.getVmax() * 0.9) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Run a product list query in the background and apply it on the FX thread
+     * If a newer load or search is submitted first, this result is dropped.
+     */
+    private void submitProductRequest(AsyncService.DbCall<ProductListing> call,
+                                      Consumer<ProductListing> onLoaded, String errorMessage) {
+        productGrid.getChildren().setAll(createLoadingIndicator());
+        // Submitting cancels any page still loading for the previous listing
+        loadingPage = false;
+        
+        CompletableFuture<ProductListing> request = productRequest.submit(call);
+        request.whenCompleteAsync((listing, error) -> {
+            if (!productRequest.isLatest(request)) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = AsyncService.unwrap(error);
+                cause.printStackTrace();
+                productGrid.getChildren().clear();
+                showAlert(Alert.AlertType.ERROR, "Error", errorMessage + cause.getMessage());
+                return;
+            }
+            categoryLabel.setText(listing.title);
+            onLoaded.accept(listing);
+        }, Platform::runLater);
+    }
+    
+    /**
+     * Spinner shown while a background query is running
+     */
+    private ProgressIndicator createLoadingIndicator() {
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setMaxSize(50, 50);
+        return indicator;
     }
     
     /**
      * Update brand list
+     * Read from the database, so it lists the brands of the whole category, not just the loaded pages.
      */
     private void updateBrandList() {
-        brandCombo.getItems().clear();
-        brandCombo.getItems().add("All Brands");
-        
-        List<String> brands = allProducts.stream()
-            .map(Product::getBrand)
-            .distinct()
-            .sorted()
-            .collect(Collectors.toList());
-        
-        brandCombo.getItems().addAll(brands);
-        brandCombo.getSelectionModel().selectFirst();
+        int categoryId = currentCategoryId;
+        AsyncService.supply(() -> productDAO.getBrands(categoryId == -1 ? null : categoryId))
+            .whenCompleteAsync((brands, error) -> {
+                if (error != null) {
+                    // The brand filter is optional; the listing still loads
+                    AsyncService.unwrap(error).printStackTrace();
+                    return;
+                }
+                if (categoryId != currentCategoryId) {
+                    return;
+                }
+                String selected = brandCombo.getValue();
+                brandCombo.getItems().setAll("All Brands");
+                brandCombo.getItems().addAll(brands);
+                if (selected != null && brandCombo.getItems().contains(selected)) {
+                    brandCombo.getSelectionModel().select(selected);
+                } else {
+                    brandCombo.getSelectionModel().selectFirst();
+                }
+            }, Platform::runLater);
     }
     
     /**
      * Display product grid
      */
-    private void displayProducts(List<Product> products) {
+    private void displayProducts(List<ProductSummary> products) {
         productGrid.getChildren().clear();
+        addProductCards(products, 0);
+    }
+    
+    /**
+     * Add product cards to the grid, continuing after the first {@code start} cells
+     */
+    private void addProductCards(List<ProductSummary> products, int start) {
+        int col = start % 4;
+        int row = start / 4;
         
-        int col = 0;
-        int row = 0;
-        
-        for (Product product : products) {
+        for (ProductSummary product : products) {
             VBox productCard = createProductCard(product);
             productGrid.add(productCard, col, row);
             
@@ -252,7 +480,7 @@ public class HomeController {
     /**
      * Create product cards
      */
-    private VBox createProductCard(Product product) {
+    private VBox createProductCard(ProductSummary product) {
         VBox card = new VBox(10);
         card.setAlignment(Pos.CENTER);
         card.setStyle("-fx-background-color: white; -fx-background-radius: 8; -fx-padding: 15; -fx-cursor: hand;");
@@ -327,7 +555,7 @@ public class HomeController {
     /**
      * View product details
      */
-    private void handleViewProductDetail(Product product) {
+    private void handleViewProductDetail(ProductSummary product) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/smartbuy/fxml/ProductDetail.fxml"));
             Parent root = loader.load();
@@ -348,45 +576,65 @@ public class HomeController {
     /**
      * add to the cart
      */
-    private void handleAddToCart(Product product) {
-        Stage stage = (Stage) productGrid.getScene().getWindow();
-        
-        if (!LoginPromptController.checkLogin(stage)) {
-            // The user chooses not to log in and is directly returned.
-            return;
-        }
-        
-        try {
-            int userId = Session.getInstance().getCurrentUser().getUserId();
-            boolean success = cartDAO.addToCart(userId, product.getProductId(), 1);
-            
-            if (success) {
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Added to cart!");
+    private void handleAddToCart(ProductSummary product) {
+        if (!Session.getInstance().isLoggedIn()) {
+            // Guests add to a cart on local disk; it is merged into their cart at login
+            try {
+                GuestCart.getInstance().add(product.getProductId(), 1);
+                showAlert(Alert.AlertType.INFORMATION, "Success", "Added to cart! Log in to check out.");
                 updateCartCount();
-            } else {
-                showAlert(Alert.AlertType.ERROR, "Failed", "Failed to add to cart!");
+            } catch (IOException e) {
+                e.printStackTrace();
+                showAlert(Alert.AlertType.ERROR, "Error", "Operation failed: " + e.getMessage());
             }
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Operation failed: " + e.getMessage());
+            return;
         }
+        
+        int userId = Session.getInstance().getCurrentUser().getUserId();
+        AsyncService.supply(() -> cartDAO.addToCart(userId, product.getProductId(), 1))
+            .whenCompleteAsync((success, error) -> {
+                if (error != null) {
+                    Throwable cause = AsyncService.unwrap(error);
+                    cause.printStackTrace();
+                    // The write may or may not have gone through
+                    Session.getInstance().invalidateCartItemCount();
+                    showAlert(Alert.AlertType.ERROR, "Error", "Operation failed: " + cause.getMessage());
+                } else if (success) {
+                    Session.getInstance().adjustCartItemCount(1);
+                    showAlert(Alert.AlertType.INFORMATION, "Success", "Added to cart!");
+                    updateCartCount();
+                } else {
+                    showAlert(Alert.AlertType.ERROR, "Failed", "Failed to add to cart!");
+                }
+            }, Platform::runLater);
     }
     
     /**
      * Update shopping cart quantity
+     * Shown from the session count; the database is only read when that is unknown
+     * (after login failed to read it, or after the count was invalidated).
      */
     private void updateCartCount() {
-        if (Session.getInstance().isLoggedIn()) {
-            try {
-                int userId = Session.getInstance().getCurrentUser().getUserId();
-                int count = cartDAO.getCartItemCount(userId);
-                cartButton.setText("Cart (" + count + ")");
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        int known = Session.getInstance().getCartItemCount();
+        if (Session.getInstance().isLoggedIn() && known >= 0) {
+            cartButton.setText("Cart (" + known + ")");
+        } else if (Session.getInstance().isLoggedIn()) {
+            int userId = Session.getInstance().getCurrentUser().getUserId();
+            AsyncService.supply(() -> {
+                    cartBuffer.flush();
+                    return cartDAO.getCartItemCount(userId);
+                })
+                .whenCompleteAsync((count, error) -> {
+                    if (error != null) {
+                        AsyncService.unwrap(error).printStackTrace();
+                        return;
+                    }
+                    Session.getInstance().setCartItemCount(count);
+                    cartButton.setText("Cart (" + count + ")");
+                }, Platform::runLater);
         } else {
-            cartButton.setText("Cart");
+            int guestCount = GuestCart.getInstance().getItemCount();
+            cartButton.setText(guestCount > 0 ? "Cart (" + guestCount + ")" : "Cart");
         }
     }
     
@@ -395,21 +643,23 @@ public class HomeController {
      */
     @FXML
     private void handleSearch() {
+        suggestionDelay.stop();
+        suggestionRequest.cancel();
+        suggestionMenu.hide();
+        
         String keyword = searchField.getText().trim();
         if (keyword.isEmpty()) {
             loadProducts(-1);
             return;
         }
         
-        try {
-            List<Product> products = productDAO.searchProducts(keyword);
-            categoryLabel.setText("Search Results: " + keyword);
-            displayProducts(products);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Search failed: " + e.getMessage());
-        }
+        submitProductRequest(
+            () -> new ProductListing("Search Results: " + keyword, productDAO.searchProducts(keyword)),
+            listing -> {
+                showingListing = false;
+                displayProducts(listing.products);
+            },
+            "Search failed: ");
     }
     
     /**
@@ -432,22 +682,25 @@ public class HomeController {
         // Map Chinese button text to English category names in the database
         String categoryEnglishName = mapDisplayToDatabaseCategory(buttonText);
         
-        try {
-            List<Category> categories = categoryDAO.getAllCategories();
-            for (Category cat : categories) {
-                if (cat.getCategoryName().equals(categoryEnglishName)) {
-                    currentCategoryId = cat.getCategoryId();
-                    loadProducts(currentCategoryId);
+        AsyncService.supply(() -> categoryDAO.getAllCategories())
+            .whenCompleteAsync((categories, error) -> {
+                if (error != null) {
+                    Throwable cause = AsyncService.unwrap(error);
+                    cause.printStackTrace();
+                    showAlert(Alert.AlertType.ERROR, "Error", "Category filtering failed: " + cause.getMessage());
                     return;
                 }
-            }
-            
-            // If no matching category is found, an error message will be displayed.
-            showAlert(Alert.AlertType.WARNING, "Notice", "Category not found: " + buttonText);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Category filtering failed: " + e.getMessage());
-        }
+                for (Category cat : categories) {
+                    if (cat.getCategoryName().equals(categoryEnglishName)) {
+                        currentCategoryId = cat.getCategoryId();
+                        loadProducts(currentCategoryId);
+                        return;
+                    }
+                }
+                
+                // If no matching category is found, an error message will be displayed.
+                showAlert(Alert.AlertType.WARNING, "Notice", "Category not found: " + buttonText);
+            }, Platform::runLater);
     }
     
     /**
@@ -526,29 +779,19 @@ public class HomeController {
     
     /**
      * Application Filtering
+     * The database filters and sorts the whole category; the grid then pages through the result.
      */
     @FXML
     private void applyFilters() {
-        List<Product> filteredProducts = new ArrayList<>(allProducts);
-        
         // 1. Price Filter
         String minPriceStr = minPriceField.getText().trim();
         String maxPriceStr = maxPriceField.getText().trim();
         
+        BigDecimal minPrice;
+        BigDecimal maxPrice;
         try {
-            if (!minPriceStr.isEmpty()) {
-                BigDecimal minPrice = new BigDecimal(minPriceStr);
-                filteredProducts = filteredProducts.stream()
-                    .filter(p -> p.getPrice().compareTo(minPrice) >= 0)
-                    .collect(Collectors.toList());
-            }
-            
-            if (!maxPriceStr.isEmpty()) {
-                BigDecimal maxPrice = new BigDecimal(maxPriceStr);
-                filteredProducts = filteredProducts.stream()
-                    .filter(p -> p.getPrice().compareTo(maxPrice) <= 0)
-                    .collect(Collectors.toList());
-            }
+            minPrice = minPriceStr.isEmpty() ? null : new BigDecimal(minPriceStr);
+            maxPrice = maxPriceStr.isEmpty() ? null : new BigDecimal(maxPriceStr);
         } catch (NumberFormatException e) {
             showAlert(Alert.AlertType.WARNING, "Notice", "Please enter a valid price!");
             return;
@@ -556,30 +799,28 @@ public class HomeController {
         
         // 2.Brand Selection
         String selectedBrand = brandCombo.getValue();
-        if (selectedBrand != null && !"All Brands".equals(selectedBrand)) {
-            filteredProducts = filteredProducts.stream()
-                .filter(p -> p.getBrand().equals(selectedBrand))
-                .collect(Collectors.toList());
-        }
+        String brand = selectedBrand != null && !"All Brands".equals(selectedBrand) ? selectedBrand : null;
         
         // 3. sequence
+        ProductFilter.Sort sort = ProductFilter.Sort.NEWEST;
         String sortOption = sortCombo.getValue();
         if (sortOption != null) {
             switch (sortOption) {
                 case "Price: Low to High":
-                    filteredProducts.sort(Comparator.comparing(Product::getPrice));
+                    sort = ProductFilter.Sort.PRICE_ASC;
                     break;
                 case "Price: High to Low":
-                    filteredProducts.sort(Comparator.comparing(Product::getPrice).reversed());
+                    sort = ProductFilter.Sort.PRICE_DESC;
                     break;
                 case "Sales Volume":
                     // Can sort by inventory or sales volume, using inventory as example here
-                    filteredProducts.sort(Comparator.comparing(Product::getStock).reversed());
+                    sort = ProductFilter.Sort.STOCK_DESC;
                     break;
             }
         }
         
-        displayProducts(filteredProducts);
+        currentFilter = new ProductFilter(minPrice, maxPrice, brand, sort);
+        loadListing();
     }
     
     /**
@@ -587,12 +828,16 @@ public class HomeController {
      */
     @FXML
     private void clearFilters() {
+        resetFilterControls();
+        currentFilter = ProductFilter.NONE;
+        loadListing();
+    }
+    
+    private void resetFilterControls() {
         minPriceField.clear();
         maxPriceField.clear();
         brandCombo.getSelectionModel().selectFirst();
         sortCombo.getSelectionModel().clearSelection();
-        
-        displayProducts(allProducts);
     }
 
     /**
@@ -697,6 +942,7 @@ public class HomeController {
      */
     @FXML
     private void handleLogout() {
+        cartBuffer.flushAsync();
         Session.getInstance().logout();
         
         try {
@@ -712,6 +958,27 @@ public class HomeController {
         }
     }
     
+    /**
+     * Result of a product list query: the heading to show and the products
+     */
+    private static class ProductListing {
+        private final String title;
+        private final List<ProductSummary> products;
+        private final String nextPageToken;
+        
+        ProductListing(String title, List<ProductSummary> products) {
+            this.title = title;
+            this.products = products;
+            this.nextPageToken = null;
+        }
+        
+        ProductListing(String title, Page<ProductSummary> page) {
+            this.title = title;
+            this.products = page.getItems();
+            this.nextPageToken = page.getNextPageToken();
+        }
+    }
+    
     /**
      * Display a prompt box
      */
@@ -1,7 +1,9 @@
 package com.example.smartbuy.controller;
 
+import com.example.smartbuy.dao.CartDAO;
 import com.example.smartbuy.dao.UserDAO;
 import com.example.smartbuy.model.User;
+import com.example.smartbuy.service.GuestCart;
 import com.example.smartbuy.util.Session;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -11,6 +13,7 @@ import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.sql.SQLException;
 
 /**
  * Login Interface Controller
@@ -36,6 +39,7 @@ public class LoginController {
     private Hyperlink adminLoginLink;
     
     private UserDAO userDAO = new UserDAO();
+    private CartDAO cartDAO = new CartDAO();
     
     @FXML
     private void initialize() {
@@ -63,6 +67,24 @@ public class LoginController {
                 // Save user to session
                 Session.getInstance().setCurrentUser(user);
                 
+                if (!user.isAdmin()) {
+                    // Lines added before logging in go into the user's cart in one batch
+                    try {
+                        GuestCart.getInstance().mergeInto(user.getUserId());
+                    } catch (SQLException | IOException e) {
+                        // Kept on disk and merged at the next login
+                        e.printStackTrace();
+                    }
+                    
+                    // The cart badge is kept in the session from here on
+                    try {
+                        Session.getInstance().setCartItemCount(cartDAO.getCartItemCount(user.getUserId()));
+                    } catch (SQLException e) {
+                        // Left unknown; the home page reads it again
+                        e.printStackTrace();
+                    }
+                }
+                
                 // Users are redirected to different screens based on their role.
                 if (user.isAdmin()) {
                     loadAdminDashboard();
@@ -0,0 +1,197 @@
+package com.example.smartbuy.controller;
+
+import com.example.smartbuy.model.PageRequest;
+import com.example.smartbuy.model.PagedResult;
+import com.example.smartbuy.service.AsyncService;
+import com.example.smartbuy.service.LatestRequest;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Admin table that shows one page at a time
+ * Sorting, filtering and paging all go to the database through a DataProvider:
+ * clicking a column header or typing a filter fetches page one again instead of
+ * sorting or filtering the loaded rows. A column is sortable if its id is set to
+ * a sort key the DAO knows (its property name). A bar under the table holds the
+ * filter box, the status choice and the page controls.
+ */
+class PagedTable<T> {
+
+    private static final int PAGE_SIZE = Integer.getInteger("smartbuy.admin.pageSize", 50);
+    private static final String ALL = "All";
+
+    /**
+     * Reads one page of the table
+     */
+    @FunctionalInterface
+    interface DataProvider<T> {
+        PagedResult<T> fetch(PageRequest request) throws Exception;
+    }
+
+    private final TableView<T> table;
+    private final DataProvider<T> provider;
+    private final Consumer<Throwable> onError;
+    private final ObservableList<T> rows = FXCollections.observableArrayList();
+    private final LatestRequest<PagedResult<T>> request = new LatestRequest<>();
+
+    private final TextField filterField = new TextField();
+    private final ComboBox<String> statusBox = new ComboBox<>();
+    private final Button previousButton = new Button("< Prev");
+    private final Button nextButton = new Button("Next >");
+    private final Label pageLabel = new Label();
+    private final PauseTransition filterDelay = new PauseTransition(Duration.millis(300));
+    // Status filter value per choice shown
+    private final Map<String, String> statuses = new LinkedHashMap<>();
+
+    private int pageIndex;
+
+    /**
+     * @param statusOptions Status filter value per label shown in the status choice (may be empty)
+     * @param onError Called on the FX thread when a page fails to load
+     */
+    PagedTable(TableView<T> table, TabPane tabPane, Map<String, String> statusOptions,
+               DataProvider<T> provider, Consumer<Throwable> onError) {
+        this.table = table;
+        this.provider = provider;
+        this.onError = onError;
+
+        table.setItems(rows);
+        // The database sorts; the table only reports which column was clicked
+        table.setSortPolicy(t -> true);
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(column.getId() != null);
+            column.sortTypeProperty().addListener((obs, oldType, newType) -> reload(0));
+        }
+        table.getSortOrder().addListener((ListChangeListener<TableColumn<T, ?>>) change -> reload(0));
+
+        filterField.setPromptText("Filter...");
+        filterField.setPrefWidth(200);
+        filterDelay.setOnFinished(e -> reload(0));
+        filterField.textProperty().addListener((obs, oldText, newText) -> filterDelay.playFromStart());
+
+        statusBox.getItems().add(ALL);
+        statuses.putAll(statusOptions);
+        statusBox.getItems().addAll(statuses.keySet());
+        statusBox.getSelectionModel().select(ALL);
+        statusBox.setVisible(!statuses.isEmpty());
+        statusBox.setManaged(!statuses.isEmpty());
+        statusBox.setOnAction(e -> reload(0));
+
+        previousButton.setOnAction(e -> reload(pageIndex - 1));
+        nextButton.setOnAction(e -> reload(pageIndex + 1));
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox bar = new HBox(8, filterField, statusBox, spacer, previousButton, pageLabel, nextButton);
+        bar.setAlignment(Pos.CENTER_LEFT);
+        bar.setPadding(new Insets(6, 0, 0, 0));
+        attachBelow(bar, tabPane);
+    }
+
+    /**
+     * Fetch the current page again, e.g. after an edit
+     */
+    void refresh() {
+        reload(pageIndex);
+    }
+
+    private void reload(int page) {
+        filterDelay.stop();
+        PageRequest pageRequest = buildRequest(Math.max(0, page));
+
+        Node placeholder = table.getPlaceholder();
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setMaxSize(50, 50);
+        table.setPlaceholder(indicator);
+        rows.clear();
+        previousButton.setDisable(true);
+        nextButton.setDisable(true);
+
+        CompletableFuture<PagedResult<T>> pending = request.submit(() -> provider.fetch(pageRequest));
+        pending.whenCompleteAsync((result, error) -> {
+            if (!request.isLatest(pending)) {
+                return;
+            }
+            table.setPlaceholder(placeholder);
+            if (error != null) {
+                onError.accept(AsyncService.unwrap(error));
+                return;
+            }
+            pageIndex = result.getPageIndex();
+            rows.setAll(result.getItems());
+            pageLabel.setText("Page " + (pageIndex + 1) + " of " + result.getPageCount()
+                    + " (" + result.getTotalCount() + " rows)");
+            previousButton.setDisable(!result.hasPreviousPage());
+            nextButton.setDisable(!result.hasNextPage());
+        }, Platform::runLater);
+    }
+
+    private PageRequest buildRequest(int page) {
+        String sortKey = null;
+        boolean ascending = true;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<T, ?> column = table.getSortOrder().get(0);
+            sortKey = column.getId();
+            ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        String status = statuses.get(statusBox.getValue());
+        return new PageRequest(page, PAGE_SIZE, sortKey, ascending, filterField.getText(), status);
+    }
+
+    /**
+     * Put the bar under the table, wherever the FXML placed the table
+     */
+    private void attachBelow(HBox bar, TabPane tabPane) {
+        Parent parent = table.getParent();
+        if (parent instanceof VBox) {
+            List<Node> children = ((VBox) parent).getChildren();
+            children.add(children.indexOf(table) + 1, bar);
+            return;
+        }
+
+        VBox wrapper = new VBox();
+        VBox.setVgrow(table, Priority.ALWAYS);
+        if (parent instanceof Pane) {
+            // Layout constraints (anchors, grid cells) live in the node's properties; move them to the wrapper
+            List<Node> children = ((Pane) parent).getChildren();
+            int index = children.indexOf(table);
+            Map<Object, Object> constraints = new LinkedHashMap<>(table.getProperties());
+            children.remove(index);
+            wrapper.getProperties().putAll(constraints);
+            wrapper.getChildren().addAll(table, bar);
+            children.add(index, wrapper);
+            return;
+        }
+
+        // Directly the content of a tab
+        for (Tab tab : new ArrayList<>(tabPane.getTabs())) {
+            if (tab.getContent() == table) {
+                tab.setContent(null);
+                wrapper.getChildren().addAll(table, bar);
+                tab.setContent(wrapper);
+                return;
+            }
+        }
+    }
+}
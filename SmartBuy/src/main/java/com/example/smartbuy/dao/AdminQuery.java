@@ -0,0 +1,116 @@
+package com.example.smartbuy.dao;
+
+import com.example.smartbuy.model.PageRequest;
+import com.example.smartbuy.model.PagedResult;
+import com.example.smartbuy.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds and runs the paged, sorted, filtered queries behind the admin tables
+ * Sort keys only ever reach the SQL through the DAO's whitelist map, and filter
+ * values are always bound as parameters.
+ */
+final class AdminQuery {
+    
+    /**
+     * Reads one row of the result
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+    
+    private final String select;
+    private final String from;
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> params = new ArrayList<>();
+    
+    /**
+     * @param select Column list of the page query
+     * @param from FROM clause, joins included
+     */
+    AdminQuery(String select, String from) {
+        this.select = select;
+        this.from = from;
+    }
+    
+    /**
+     * Add a WHERE condition; its ? placeholders take the given values in order
+     */
+    AdminQuery where(String condition, Object... values) {
+        conditions.add("(" + condition + ")");
+        for (Object value : values) {
+            params.add(value);
+        }
+        return this;
+    }
+    
+    /**
+     * Count the matching rows, then read the requested page in one connection
+     * @param sortColumns Whitelist of sort key to SQL column
+     * @param defaultSort Column used when the request has no known sort key
+     * @param idColumn Unique column appended to the order so pages never overlap
+     */
+    <T> PagedResult<T> fetch(PageRequest request, Map<String, String> sortColumns, String defaultSort,
+                             boolean defaultAscending, String idColumn, RowMapper<T> mapper) throws SQLException {
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        
+        String sortColumn = request.getSortKey() == null ? null : sortColumns.get(request.getSortKey());
+        boolean ascending = sortColumn == null ? defaultAscending : request.isAscending();
+        if (sortColumn == null) {
+            sortColumn = defaultSort;
+        }
+        String direction = ascending ? " ASC" : " DESC";
+        String orderBy = " ORDER BY " + sortColumn + direction + ", " + idColumn + direction;
+        
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            int total;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM " + from + where)) {
+                bind(pstmt);
+                ResultSet rs = pstmt.executeQuery();
+                total = rs.next() ? rs.getInt(1) : 0;
+            }
+            
+            // A page past the end (e.g. after deleting the last rows) shows the last page instead
+            int pageSize = request.getPageSize();
+            int lastPage = Math.max(0, (total - 1) / pageSize);
+            int pageIndex = Math.min(request.getPageIndex(), lastPage);
+            
+            List<T> items = new ArrayList<>();
+            if (total > 0) {
+                String sql = "SELECT " + select + " FROM " + from + where + orderBy + " LIMIT ? OFFSET ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int index = bind(pstmt);
+                    pstmt.setInt(index++, pageSize);
+                    pstmt.setInt(index, pageIndex * pageSize);
+                    ResultSet rs = pstmt.executeQuery();
+                    
+                    while (rs.next()) {
+                        items.add(mapper.map(rs));
+                    }
+                }
+            }
+            return new PagedResult<>(items, pageIndex, pageSize, total);
+        }
+    }
+    
+    /**
+     * LIKE pattern matching the text anywhere, with LIKE wildcards in it taken literally
+     */
+    static String contains(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+    
+    // Bind the filter values; returns the index of the next parameter
+    private int bind(PreparedStatement pstmt) throws SQLException {
+        int index = 1;
+        for (Object param : params) {
+            pstmt.setObject(index++, param);
+        }
+        return index;
+    }
+}
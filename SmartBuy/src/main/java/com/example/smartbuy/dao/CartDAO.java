@@ -5,7 +5,11 @@ import com.example.smartbuy.util.DatabaseUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  *Shopping Cart Data Access Object
@@ -94,6 +98,52 @@ public class CartDAO {
         }
     }
     
+    /**
+     * Add several products to the cart in one transaction (e.g. reorder, guest cart merge)
+     * @param quantities Quantity to add per product ID
+     */
+    public boolean addToCart(int userId, Map<Integer, Integer> quantities) throws SQLException {
+        // No parameter after VALUES, so the driver can send the batch as one multi-row INSERT
+        String sql = "INSERT INTO cart (user_id, product_id, quantity) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+        
+        // Product ID order, so two merges into the same cart lock rows in the same order
+        List<int[]> rows = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : new TreeMap<>(quantities).entrySet()) {
+            rows.add(new int[]{userId, e.getKey(), e.getValue()});
+        }
+        return executeBatch(sql, rows) > 0;
+    }
+    
+    /**
+     * Set the quantity of several cart items in one transaction
+     * @param quantities New quantity per cart_id
+     * @return Number of cart items updated
+     */
+    public int updateCartItemQuantities(Map<Integer, Integer> quantities) throws SQLException {
+        String sql = "UPDATE cart SET quantity = ? WHERE cart_id = ?";
+        
+        List<int[]> rows = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : new TreeMap<>(quantities).entrySet()) {
+            rows.add(new int[]{e.getValue(), e.getKey()});
+        }
+        return executeBatch(sql, rows);
+    }
+    
+    /**
+     * Remove several items from the cart in one transaction
+     * @return Number of cart items removed
+     */
+    public int removeFromCart(Collection<Integer> cartIds) throws SQLException {
+        String sql = "DELETE FROM cart WHERE cart_id = ?";
+        
+        List<int[]> rows = new ArrayList<>();
+        for (Integer cartId : new TreeSet<>(cartIds)) {
+            rows.add(new int[]{cartId});
+        }
+        return executeBatch(sql, rows);
+    }
+    
     /**
      * Clear user shopping cart
      */
@@ -126,4 +176,47 @@ public class CartDAO {
         }
         return 0;
     }
+    
+    /**
+     * Run one statement for each parameter row as a single JDBC batch in one transaction
+     * @return Rows affected, counting a statement whose count the driver does not report as one
+     */
+    private int executeBatch(String sql, List<int[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        Connection conn = null;
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            int affected = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        pstmt.setInt(i + 1, row[i]);
+                    }
+                    pstmt.addBatch();
+                }
+                for (int count : pstmt.executeBatch()) {
+                    affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                }
+            }
+            
+            conn.commit();
+            return affected;
+            
+        } catch (SQLException e) {
+            if (conn != null) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                conn.setAutoCommit(true);
+                conn.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.smartbuy.dao;
+
+import java.sql.SQLException;
+
+/**
+ * The commit itself failed, so the transaction may or may not have been written
+ * Unlike other SQLExceptions from a transaction, it must not be retried blindly:
+ * the orders may already exist and their stock may already be taken.
+ */
+public class CommitOutcomeUnknownException extends SQLException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public CommitOutcomeUnknownException(Throwable cause) {
+        super("Commit failed; the transaction may or may not have been written", cause);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.smartbuy.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size IN lists for queries by a variable number of ids
+ * Each distinct list length is a distinct SQL string, with its own server prepared
+ * statement, driver statement cache entry and SqlStats line. Padding the ids to a
+ * few bucket sizes, repeating the last id, keeps that down to six statements;
+ * repeated ids match the same rows, so results are unchanged.
+ */
+final class InList {
+    
+    // Largest IN list; longer id lists are split into lists of this size
+    static final int MAX_SIZE = 500;
+    
+    private static final int[] BUCKETS = {1, 4, 16, 64, 256, MAX_SIZE};
+    
+    private InList() {}
+    
+    /**
+     * The ids padded to the smallest bucket that holds them, by repeating the last id
+     * @param ids At least one and at most {@value #MAX_SIZE} ids
+     */
+    static List<Integer> padded(List<Integer> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_SIZE) {
+            throw new IllegalArgumentException("IN list of " + ids.size() + " ids");
+        }
+        int size = MAX_SIZE;
+        for (int bucket : BUCKETS) {
+            if (bucket >= ids.size()) {
+                size = bucket;
+                break;
+            }
+        }
+        List<Integer> padded = new ArrayList<>(size);
+        padded.addAll(ids);
+        Integer last = ids.get(ids.size() - 1);
+        while (padded.size() < size) {
+            padded.add(last);
+        }
+        return padded;
+    }
+    
+    /**
+     * "?, ?, ?" with one placeholder per id
+     */
+    static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.toString();
+    }
+}
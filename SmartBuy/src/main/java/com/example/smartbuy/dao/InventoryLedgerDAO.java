@@ -0,0 +1,167 @@
+package com.example.smartbuy.dao;
+
+import com.example.smartbuy.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inventory Ledger Data Access Object
+ * Stock taken in memory for hot products is written to inventory_ledger in the
+ * order transaction (see OrderDAO.checkout) and applied to products.stock here
+ * in batches, so checkouts of a hot product never wait on its row lock.
+ */
+public class InventoryLedgerDAO {
+    
+    /**
+     * Apply the oldest pending ledger rows to products.stock and delete them, in one transaction
+     * Rows are locked while read, so two processes never apply the same row.
+     * @param maxRows Most rows to apply in this call
+     * @return Units applied per product ID (empty when nothing was pending)
+     */
+    public Map<Integer, Integer> applyPending(int maxRows) throws SQLException {
+        String selectSql = "SELECT ledger_id, product_id, quantity FROM inventory_ledger " +
+                          "ORDER BY ledger_id LIMIT ? FOR UPDATE";
+        String stockSql = "UPDATE products SET stock = stock - ? WHERE product_id = ?";
+        String deleteSql = "DELETE FROM inventory_ledger WHERE ledger_id = ?";
+        
+        Connection conn = null;
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            // Units per product in ID order, the order checkouts lock products in
+            Map<Integer, Integer> applied = new TreeMap<>();
+            List<Long> ledgerIds = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                pstmt.setInt(1, maxRows);
+                ResultSet rs = pstmt.executeQuery();
+                
+                while (rs.next()) {
+                    ledgerIds.add(rs.getLong("ledger_id"));
+                    applied.merge(rs.getInt("product_id"), rs.getInt("quantity"), Integer::sum);
+                }
+            }
+            if (ledgerIds.isEmpty()) {
+                conn.rollback();
+                return applied;
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(stockSql)) {
+                for (Map.Entry<Integer, Integer> e : applied.entrySet()) {
+                    pstmt.setInt(1, e.getValue());
+                    pstmt.setInt(2, e.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(deleteSql)) {
+                for (Long ledgerId : ledgerIds) {
+                    pstmt.setLong(1, ledgerId);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            
+            conn.commit();
+            return applied;
+            
+        } catch (SQLException e) {
+            if (conn != null) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                conn.setAutoCommit(true);
+                conn.close();
+            }
+        }
+    }
+    
+    /**
+     * Stock of a product less its pending ledger rows, i.e. what is left to sell
+     * @return Available stock, or null if the product does not exist
+     */
+    public Integer getAvailableStock(int productId) throws SQLException {
+        String sql = "SELECT p.stock - COALESCE((SELECT SUM(l.quantity) FROM inventory_ledger l " +
+                    "WHERE l.product_id = p.product_id), 0) AS available " +
+                    "FROM products p WHERE p.product_id = ?";
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, productId);
+            ResultSet rs = pstmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getInt("available");
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Set what is left to sell of a product: stock becomes newStock plus its pending ledger rows
+     * The product's ledger rows are locked first, so a concurrent applyPending cannot
+     * apply them in between.
+     */
+    public boolean setAvailableStock(int productId, int newStock) throws SQLException {
+        String pendingSql = "SELECT quantity FROM inventory_ledger WHERE product_id = ? FOR UPDATE";
+        String stockSql = "UPDATE products SET stock = ? WHERE product_id = ?";
+        
+        Connection conn = null;
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            int pending = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(pendingSql)) {
+                pstmt.setInt(1, productId);
+                ResultSet rs = pstmt.executeQuery();
+                
+                while (rs.next()) {
+                    pending += rs.getInt("quantity");
+                }
+            }
+            
+            boolean updated;
+            try (PreparedStatement pstmt = conn.prepareStatement(stockSql)) {
+                pstmt.setInt(1, newStock + pending);
+                pstmt.setInt(2, productId);
+                updated = pstmt.executeUpdate() > 0;
+            }
+            
+            conn.commit();
+            return updated;
+            
+        } catch (SQLException e) {
+            if (conn != null) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                conn.setAutoCommit(true);
+                conn.close();
+            }
+        }
+    }
+    
+    /**
+     * Number of ledger rows not yet applied
+     */
+    public int getPendingCount() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM inventory_ledger";
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -1,63 +1,50 @@
 package com.example.smartbuy.dao;
 
+import com.example.smartbuy.model.CategoryStat;
+import com.example.smartbuy.model.CheckoutResult;
 import com.example.smartbuy.model.Order;
 import com.example.smartbuy.model.OrderItem;
+import com.example.smartbuy.model.Page;
+import com.example.smartbuy.model.PageRequest;
+import com.example.smartbuy.model.PagedResult;
+import com.example.smartbuy.model.SalesSummary;
 import com.example.smartbuy.util.DatabaseUtil;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Order Data Access Object
  */
 public class OrderDAO {
     
+    // Sort keys of the admin orders table
+    private static final Map<String, String> ADMIN_SORT_COLUMNS = Map.of(
+            "orderId", "order_id",
+            "userId", "user_id",
+            "orderDate", "order_date",
+            "totalAmount", "total_amount",
+            "status", "status",
+            "paymentMethod", "payment_method");
+    
     /**
      * Create Order
      */
     public int createOrder(Order order) throws SQLException {
-        String orderSql = "INSERT INTO orders (user_id, total_amount, status, shipping_address, payment_method) " +
-                         "VALUES (?, ?, ?, ?, ?)";
-        String itemSql = "INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price, subtotal) " +
-                        "VALUES (?, ?, ?, ?, ?, ?)";
-        
         Connection conn = null;
-        int orderId = -1;
         
         try {
             conn = DatabaseUtil.getConnection();
             conn.setAutoCommit(false);
             
-            // Insert Order
-            try (PreparedStatement pstmt = conn.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
-                pstmt.setInt(1, order.getUserId());
-                pstmt.setBigDecimal(2, order.getTotalAmount());
-                pstmt.setString(3, order.getStatus());
-                pstmt.setString(4, order.getShippingAddress());
-                pstmt.setString(5, order.getPaymentMethod());
-                
-                pstmt.executeUpdate();
-                
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    orderId = rs.getInt(1);
-                }
-            }
-            
-            // Insert Order Details
-            try (PreparedStatement pstmt = conn.prepareStatement(itemSql)) {
-                for (OrderItem item : order.getOrderItems()) {
-                    pstmt.setInt(1, orderId);
-                    pstmt.setInt(2, item.getProductId());
-                    pstmt.setString(3, item.getProductName());
-                    pstmt.setInt(4, item.getQuantity());
-                    pstmt.setBigDecimal(5, item.getUnitPrice());
-                    pstmt.setBigDecimal(6, item.getSubtotal());
-                    pstmt.addBatch();
-                }
-                pstmt.executeBatch();
-            }
+            int orderId = insertOrder(conn, order);
             
             conn.commit();
             return orderId;
@@ -75,48 +62,396 @@ public class OrderDAO {
         }
     }
     
+    /**
+     * Place an order: take the stock and insert the order with its items in one transaction
+     * Stock is taken with a conditional decrement (stock >= quantity), so concurrent
+     * checkouts cannot oversell. Rows are updated in product ID order, so checkouts
+     * sharing products lock them in the same order and do not deadlock. If any line
+     * is short, nothing is written and every short line is reported.
+     */
+    public CheckoutResult checkout(Order order) throws SQLException {
+        return checkout(order, Collections.emptySet());
+    }
+    
+    /**
+     * Place an order whose hot products already had their stock reserved in memory
+     * Reserved products are not decremented here; an inventory_ledger row per product
+     * is written in the order transaction instead and applied to stock later in a batch
+     * (see InventoryReservationService).
+     * @param reservedProductIds Products whose stock the caller has already taken
+     * @throws CommitOutcomeUnknownException If the commit failed, so the order may have been placed
+     */
+    public CheckoutResult checkout(Order order, Set<Integer> reservedProductIds) throws SQLException {
+        Connection conn = null;
+        boolean committing = false;
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            CheckoutResult result = placeOrder(conn, order, reservedProductIds);
+            if (result.isPlaced()) {
+                committing = true;
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+            return result;
+            
+        } catch (SQLException | RuntimeException e) {
+            throw rollbackAfter(conn, e, committing);
+        } finally {
+            release(conn);
+        }
+    }
+    
+    /**
+     * Place several orders in one transaction with a single commit (group commit)
+     * Each order runs under its own savepoint, so a short order is rolled back alone
+     * and reported in its result. If a statement fails before the commit, nothing is
+     * written and the exception is thrown; the caller can then retry the orders one by one.
+     * @param orders Orders to place, in the order they are written
+     * @param reservedProductIds Per order, the products whose stock the caller has already taken
+     * @return One result per order, in the same order
+     * @throws CommitOutcomeUnknownException If the commit failed, so the orders may have been placed;
+     *         they must not be retried
+     */
+    public List<CheckoutResult> checkoutAll(List<Order> orders, List<Set<Integer>> reservedProductIds)
+            throws SQLException {
+        Connection conn = null;
+        boolean committing = false;
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+            
+            List<CheckoutResult> results = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                Savepoint savepoint = conn.setSavepoint();
+                CheckoutResult result = placeOrder(conn, orders.get(i), reservedProductIds.get(i));
+                if (result.isPlaced()) {
+                    conn.releaseSavepoint(savepoint);
+                } else {
+                    conn.rollback(savepoint);
+                }
+                results.add(result);
+            }
+            
+            committing = true;
+            conn.commit();
+            return results;
+            
+        } catch (SQLException | RuntimeException e) {
+            throw rollbackAfter(conn, e, committing);
+        } finally {
+            release(conn);
+        }
+    }
+    
+    /**
+     * Roll back after a checkout failed, returning the exception to throw
+     * A failed commit has an unknown outcome and is reported as CommitOutcomeUnknownException;
+     * other RuntimeExceptions are rethrown as they are. A failed rollback is only attached
+     * as suppressed, since closing the connection ends the transaction anyway.
+     */
+    private SQLException rollbackAfter(Connection conn, Exception e, boolean committing) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+        }
+        if (committing) {
+            return new CommitOutcomeUnknownException(e);
+        }
+        if (e instanceof SQLException) {
+            return (SQLException) e;
+        }
+        throw (RuntimeException) e;
+    }
+    
+    /**
+     * Return a checkout connection to the pool
+     * Errors here come after the outcome is settled, so they are logged, not thrown:
+     * throwing would make a committed order look failed.
+     */
+    private void release(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Take the stock and insert one order on the caller's transaction
+     * If a line is short nothing is inserted, but stock already taken for earlier
+     * lines is not given back: the caller must roll back.
+     */
+    private CheckoutResult placeOrder(Connection conn, Order order, Set<Integer> reservedProductIds)
+            throws SQLException {
+        String stockSql = "UPDATE products SET stock = stock - ? WHERE product_id = ? AND stock >= ?";
+        String ledgerSql = "INSERT INTO inventory_ledger (product_id, order_id, quantity) VALUES (?, ?, ?)";
+        
+        // Quantity per product in ID order; a product on several lines is taken once
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            names.putIfAbsent(item.getProductId(), item.getProductName());
+        }
+        
+        // Deduct inventory, noting the lines that are short
+        List<Integer> shortIds = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(stockSql)) {
+            for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                if (reservedProductIds.contains(line.getKey())) {
+                    continue;
+                }
+                pstmt.setInt(1, line.getValue());
+                pstmt.setInt(2, line.getKey());
+                pstmt.setInt(3, line.getValue());
+                if (pstmt.executeUpdate() == 0) {
+                    shortIds.add(line.getKey());
+                }
+            }
+        }
+        
+        if (!shortIds.isEmpty()) {
+            return CheckoutResult.rejected(readShortfalls(conn, shortIds, quantities, names));
+        }
+        
+        int orderId = insertOrder(conn, order);
+        
+        // Record reserved stock in the same transaction, so it is applied exactly when the order exists
+        if (!reservedProductIds.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(ledgerSql)) {
+                for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                    if (reservedProductIds.contains(line.getKey())) {
+                        pstmt.setInt(1, line.getKey());
+                        pstmt.setInt(2, orderId);
+                        pstmt.setInt(3, line.getValue());
+                        pstmt.addBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+        }
+        return CheckoutResult.placed(orderId);
+    }
+    
+    /**
+     * Insert an order and its items on the caller's connection and transaction
+     * @return The new order ID
+     */
+    private int insertOrder(Connection conn, Order order) throws SQLException {
+        String orderSql = "INSERT INTO orders (user_id, total_amount, status, shipping_address, payment_method) " +
+                         "VALUES (?, ?, ?, ?, ?)";
+        String itemSql = "INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price, subtotal) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)";
+        
+        int orderId = -1;
+        
+        // Insert Order
+        try (PreparedStatement pstmt = conn.prepareStatement(orderSql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, order.getUserId());
+            pstmt.setBigDecimal(2, order.getTotalAmount());
+            pstmt.setString(3, order.getStatus());
+            pstmt.setString(4, order.getShippingAddress());
+            pstmt.setString(5, order.getPaymentMethod());
+            
+            pstmt.executeUpdate();
+            
+            ResultSet rs = pstmt.getGeneratedKeys();
+            if (rs.next()) {
+                orderId = rs.getInt(1);
+            }
+        }
+        
+        // Insert Order Details
+        try (PreparedStatement pstmt = conn.prepareStatement(itemSql)) {
+            for (OrderItem item : order.getOrderItems()) {
+                pstmt.setInt(1, orderId);
+                pstmt.setInt(2, item.getProductId());
+                pstmt.setString(3, item.getProductName());
+                pstmt.setInt(4, item.getQuantity());
+                pstmt.setBigDecimal(5, item.getUnitPrice());
+                pstmt.setBigDecimal(6, item.getSubtotal());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        return orderId;
+    }
+    
+    /**
+     * Current stock of the short products (a deleted product counts as 0)
+     * IN lists are padded to a few fixed sizes (see InList), so the SQL text repeats.
+     */
+    private List<CheckoutResult.Shortfall> readShortfalls(Connection conn, List<Integer> productIds,
+                                                          Map<Integer, Integer> quantities,
+                                                          Map<Integer, String> names) throws SQLException {
+        Map<Integer, Integer> stock = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += InList.MAX_SIZE) {
+            List<Integer> chunk = InList.padded(productIds.subList(from, Math.min(from + InList.MAX_SIZE, productIds.size())));
+            String sql = "SELECT product_id, stock FROM products WHERE product_id IN (" +
+                    InList.placeholders(chunk.size()) + ")";
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (Integer productId : chunk) {
+                    pstmt.setInt(index++, productId);
+                }
+                ResultSet rs = pstmt.executeQuery();
+                
+                while (rs.next()) {
+                    stock.put(rs.getInt("product_id"), rs.getInt("stock"));
+                }
+            }
+        }
+        
+        List<CheckoutResult.Shortfall> shortfalls = new ArrayList<>();
+        for (Integer productId : productIds) {
+            shortfalls.add(new CheckoutResult.Shortfall(productId, names.get(productId),
+                    quantities.get(productId), stock.getOrDefault(productId, 0)));
+        }
+        return shortfalls;
+    }
+    
     /**
      * Get user order history
+     * Orders and their items are read with two queries, whatever the number of orders.
      */
     public List<Order> getUserOrders(int userId) throws SQLException {
         String sql = "SELECT * FROM orders WHERE user_id = ? ORDER BY order_date DESC";
+        String itemSql = "SELECT oi.* FROM order_items oi JOIN orders o ON oi.order_id = o.order_id " +
+                        "WHERE o.user_id = ? ORDER BY oi.order_item_id";
+        
+        Map<Integer, Order> ordersById = new HashMap<>();
+        List<Order> orders = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                ResultSet rs = pstmt.executeQuery();
+                
+                while (rs.next()) {
+                    Order order = extractOrderFromResultSet(rs);
+                    ordersById.put(order.getOrderId(), order);
+                    orders.add(order);
+                }
+            }
+            
+            if (!orders.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(itemSql)) {
+                    pstmt.setInt(1, userId);
+                    attachOrderItems(pstmt.executeQuery(), ordersById);
+                }
+            }
+        }
+        return orders;
+    }
+    
+    /**
+     * Get one page of a user's order history, newest first, without items
+     * Pages seek on (order_date, order_id) using idx_user, so later pages cost the same
+     * as the first. Items are loaded with OrderHistoryService when an order is opened.
+     * @param pageToken Token from the previous page, or null for the first page
+     * @param pageSize Maximum number of orders in the page
+     */
+    public Page<Order> getUserOrders(int userId, String pageToken, int pageSize) throws SQLException {
+        PageToken after = pageToken == null ? null : PageToken.decode(pageToken);
+        
+        StringBuilder sql = new StringBuilder("SELECT * FROM orders WHERE user_id = ?");
+        if (after != null) {
+            sql.append(" AND (order_date < ? OR (order_date = ? AND order_id < ?))");
+        }
+        sql.append(" ORDER BY order_date DESC, order_id DESC LIMIT ?");
         
         List<Order> orders = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
             
-            pstmt.setInt(1, userId);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (after != null) {
+                Timestamp orderDate = Timestamp.valueOf(after.getTimestamp());
+                pstmt.setTimestamp(index++, orderDate);
+                pstmt.setTimestamp(index++, orderDate);
+                pstmt.setInt(index++, after.getId());
+            }
+            // One extra row tells whether another page follows
+            pstmt.setInt(index, pageSize + 1);
             ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                Order order = extractOrderFromResultSet(rs);
-                order.setOrderItems(getOrderItems(order.getOrderId()));
-                orders.add(order);
+                orders.add(extractOrderFromResultSet(rs));
             }
         }
-        return orders;
+        
+        if (orders.size() <= pageSize) {
+            return new Page<>(orders, null);
+        }
+        orders.remove(pageSize);
+        Order last = orders.get(pageSize - 1);
+        return new Page<>(orders, PageToken.encode(last.getOrderDate(), last.getOrderId()));
     }
     
     /**
      *Get All Orders (Admin)
+     * Orders and their items are read with two queries, whatever the number of orders.
      */
     public List<Order> getAllOrders() throws SQLException {
         String sql = "SELECT * FROM orders ORDER BY order_date DESC";
+        String itemSql = "SELECT * FROM order_items ORDER BY order_item_id";
         
+        Map<Integer, Order> ordersById = new HashMap<>();
         List<Order> orders = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             Statement stmt = conn.createStatement()) {
             
-            while (rs.next()) {
-                Order order = extractOrderFromResultSet(rs);
-                order.setOrderItems(getOrderItems(order.getOrderId()));
-                orders.add(order);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    Order order = extractOrderFromResultSet(rs);
+                    ordersById.put(order.getOrderId(), order);
+                    orders.add(order);
+                }
+            }
+            
+            if (!orders.isEmpty()) {
+                try (ResultSet rs = stmt.executeQuery(itemSql)) {
+                    attachOrderItems(rs, ordersById);
+                }
             }
         }
         return orders;
     }
     
+    /**
+     * Get one page of all orders without items (administrator function)
+     * Text matches an order ID or the shipping address; the status filter is an order status.
+     */
+    public PagedResult<Order> getOrdersForAdmin(PageRequest request) throws SQLException {
+        AdminQuery query = new AdminQuery("*", "orders");
+        String text = request.getTextFilter();
+        if (text != null && text.matches("\\d{1,9}")) {
+            query.where("order_id = ? OR shipping_address LIKE ?", Integer.parseInt(text), AdminQuery.contains(text));
+        } else if (text != null) {
+            query.where("shipping_address LIKE ?", AdminQuery.contains(text));
+        }
+        if (request.getStatusFilter() != null) {
+            query.where("status = ?", request.getStatusFilter());
+        }
+        return query.fetch(request, ADMIN_SORT_COLUMNS, "order_date", false, "order_id",
+                this::extractOrderFromResultSet);
+    }
+    
     /**
      *Get order by ID
      */
@@ -142,7 +477,7 @@ public class OrderDAO {
      *Get order details
      */
     public List<OrderItem> getOrderItems(int orderId) throws SQLException {
-        String sql = "SELECT * FROM order_items WHERE order_id = ?";
+        String sql = "SELECT * FROM order_items WHERE order_id = ? ORDER BY order_item_id";
         
         List<OrderItem> items = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection();
@@ -152,15 +487,7 @@ public class OrderDAO {
             ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                OrderItem item = new OrderItem();
-                item.setOrderItemId(rs.getInt("order_item_id"));
-                item.setOrderId(rs.getInt("order_id"));
-                item.setProductId(rs.getInt("product_id"));
-                item.setProductName(rs.getString("product_name"));
-                item.setQuantity(rs.getInt("quantity"));
-                item.setUnitPrice(rs.getBigDecimal("unit_price"));
-                item.setSubtotal(rs.getBigDecimal("subtotal"));
-                items.add(item);
+                items.add(extractOrderItemFromResultSet(rs));
             }
         }
         return items;
@@ -182,6 +509,133 @@ public class OrderDAO {
         }
     }
     
+    /**
+     * Get order count, total revenue and units sold, aggregated in the database
+     */
+    public SalesSummary getSalesSummary() throws SQLException {
+        String sql = "SELECT (SELECT COUNT(*) FROM orders) AS order_count, " +
+                    "(SELECT COALESCE(SUM(total_amount), 0) FROM orders) AS total_revenue, " +
+                    "(SELECT COALESCE(SUM(quantity), 0) FROM order_items) AS items_sold";
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            if (rs.next()) {
+                return new SalesSummary(rs.getInt("order_count"),
+                        rs.getBigDecimal("total_revenue"),
+                        rs.getInt("items_sold"));
+            }
+        }
+        return new SalesSummary();
+    }
+    
+    /**
+     * Get order count, revenue and units sold for orders placed between two dates
+     * Count and revenue are read from idx_order_date (order_date, total_amount) alone.
+     * @param from First order date to include
+     * @param to Last order date to include
+     */
+    public SalesSummary getSalesSummary(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT COUNT(*) AS order_count, COALESCE(SUM(total_amount), 0) AS total_revenue, " +
+                    "(SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi " +
+                    "JOIN orders io ON oi.order_id = io.order_id " +
+                    "WHERE io.order_date >= ? AND io.order_date < ?) AS items_sold " +
+                    "FROM orders WHERE order_date >= ? AND order_date < ?";
+        
+        // End date is inclusive: everything before the start of the next day
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setTimestamp(1, start);
+            pstmt.setTimestamp(2, end);
+            pstmt.setTimestamp(3, start);
+            pstmt.setTimestamp(4, end);
+            ResultSet rs = pstmt.executeQuery();
+            
+            if (rs.next()) {
+                return new SalesSummary(rs.getInt("order_count"),
+                        rs.getBigDecimal("total_revenue"),
+                        rs.getInt("items_sold"));
+            }
+        }
+        return new SalesSummary();
+    }
+    
+    /**
+     * Get sales volume and revenue per category with one grouped query
+     * @param from First order date to include, or null for no lower bound
+     * @param to Last order date to include, or null for no upper bound
+     */
+    public List<CategoryStat> getCategoryStats(LocalDate from, LocalDate to) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT c.category_name, SUM(oi.quantity) AS total_quantity, SUM(oi.subtotal) AS total_revenue " +
+                "FROM order_items oi " +
+                "JOIN orders o ON oi.order_id = o.order_id " +
+                "JOIN products p ON oi.product_id = p.product_id " +
+                "JOIN categories c ON p.category_id = c.category_id " +
+                "WHERE 1 = 1");
+        if (from != null) {
+            sql.append(" AND o.order_date >= ?");
+        }
+        if (to != null) {
+            sql.append(" AND o.order_date < ?");
+        }
+        sql.append(" GROUP BY c.category_id, c.category_name ORDER BY total_revenue DESC");
+        
+        List<CategoryStat> stats = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            if (from != null) {
+                pstmt.setTimestamp(index++, Timestamp.valueOf(from.atStartOfDay()));
+            }
+            if (to != null) {
+                // End date is inclusive: everything before the start of the next day
+                pstmt.setTimestamp(index, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                stats.add(new CategoryStat(rs.getString("category_name"),
+                        rs.getInt("total_quantity"),
+                        rs.getBigDecimal("total_revenue")));
+            }
+        }
+        return stats;
+    }
+    
+    /**
+     * Add each item row to its order (rows of orders not in the map are skipped)
+     */
+    private void attachOrderItems(ResultSet rs, Map<Integer, Order> ordersById) throws SQLException {
+        while (rs.next()) {
+            Order order = ordersById.get(rs.getInt("order_id"));
+            if (order != null) {
+                order.getOrderItems().add(extractOrderItemFromResultSet(rs));
+            }
+        }
+    }
+    
+    /**
+     * Extract OrderItem object from ResultSet
+     */
+    private OrderItem extractOrderItemFromResultSet(ResultSet rs) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setOrderItemId(rs.getInt("order_item_id"));
+        item.setOrderId(rs.getInt("order_id"));
+        item.setProductId(rs.getInt("product_id"));
+        item.setProductName(rs.getString("product_name"));
+        item.setQuantity(rs.getInt("quantity"));
+        item.setUnitPrice(rs.getBigDecimal("unit_price"));
+        item.setSubtotal(rs.getBigDecimal("subtotal"));
+        return item;
+    }
+    
     /**
      * Extract Order object from ResultSet
      */
@@ -0,0 +1,67 @@
+package com.example.smartbuy.dao;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Continuation token for keyset pagination on (sort key, id)
+ * The token is the sort key and id of the last row already returned,
+ * e.g. "2025-01-31T10:15:30|42" for a timestamp key or "199.00|42" for a price.
+ */
+final class PageToken {
+    
+    private final String key;
+    private final int id;
+    
+    private PageToken(String key, int id) {
+        this.key = key;
+        this.id = id;
+    }
+    
+    static String encode(Object key, int id) {
+        return key + "|" + id;
+    }
+    
+    /**
+     * Parse a token produced by encode
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static PageToken decode(String token) {
+        int separator = token.lastIndexOf('|');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid page token: " + token);
+        }
+        try {
+            return new PageToken(token.substring(0, separator), Integer.parseInt(token.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the key is not a timestamp
+     */
+    LocalDateTime getTimestamp() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page token key: " + key, e);
+        }
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the key is not a number
+     */
+    BigDecimal getDecimal() {
+        try {
+            return new BigDecimal(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page token key: " + key, e);
+        }
+    }
+    
+    int getId() {
+        return id;
+    }
+}
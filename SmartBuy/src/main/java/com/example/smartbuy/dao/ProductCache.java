@@ -0,0 +1,226 @@
+package com.example.smartbuy.dao;
+
+import com.example.smartbuy.model.Page;
+import com.example.smartbuy.model.Product;
+import com.example.smartbuy.model.ProductSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared in-process cache of catalog reads made through ProductDAO
+ * Full products are indexed by id, and listings of summaries (all products, per
+ * category, per page) by a query key. ProductDAO writes evict the changed product
+ * and drop every listing. Stock changes (checkouts) evict the product and only the
+ * listings that show it, so a sold-out product never shows as in stock and the
+ * other listings survive a checkout burst. Entries also expire after a time to
+ * live, so changes made by other clients of the same database show up without a restart.
+ * Callers get copies of products, so editing a returned Product never changes the
+ * cache; summaries are immutable and shared.
+ */
+public class ProductCache {
+    
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final long DEFAULT_TTL_MS = 60_000;
+    // Listings are few (one per category plus pages scrolled), so they get a small fixed bound
+    private static final int MAX_LISTINGS = 128;
+    
+    private static final ProductCache INSTANCE = new ProductCache(
+            Integer.getInteger("smartbuy.cache.products.maxSize", DEFAULT_MAX_SIZE),
+            Long.getLong("smartbuy.cache.products.ttlMs", DEFAULT_TTL_MS));
+    
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Integer, Entry<Product>> byId;
+    private final LinkedHashMap<String, Entry<Page<ProductSummary>>> listings;
+    // Bumped by every write; a read that started before a write must not be cached
+    private long generation;
+    // Same, for listings
+    private long listingGeneration;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public ProductCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+        this.listings = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    public static ProductCache getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Current write generation, taken before a database read and passed to putProduct
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+    
+    /**
+     * Current write generation of listings, taken before a database read and passed to putListing
+     */
+    public synchronized long listingGeneration() {
+        return listingGeneration;
+    }
+    
+    /**
+     * Get a cached product
+     * @return Copy of the product, or null on a miss
+     */
+    public synchronized Product getProduct(int productId) {
+        Entry<Product> entry = byId.get(productId);
+        if (entry == null || entry.isExpired()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new Product(entry.value);
+    }
+    
+    public synchronized void putProduct(Product product, long readGeneration) {
+        if (readGeneration != generation || maxSize <= 0) {
+            return;
+        }
+        byId.put(product.getProductId(), new Entry<>(new Product(product), ttlNanos));
+        evictOverflow();
+    }
+    
+    /**
+     * Get a cached listing
+     * @return The page (its list is a copy), or null on a miss
+     */
+    public synchronized Page<ProductSummary> getListing(String key) {
+        Entry<Page<ProductSummary>> entry = listings.get(key);
+        if (entry == null || entry.isExpired()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new Page<>(new ArrayList<>(entry.value.getItems()), entry.value.getNextPageToken());
+    }
+    
+    public synchronized void putListing(String key, Page<ProductSummary> page, long readGeneration) {
+        if (readGeneration != listingGeneration || maxSize <= 0) {
+            return;
+        }
+        listings.put(key, new Entry<>(new Page<>(new ArrayList<>(page.getItems()), page.getNextPageToken()), ttlNanos));
+        while (listings.size() > MAX_LISTINGS) {
+            listings.remove(listings.keySet().iterator().next());
+        }
+    }
+    
+    /**
+     * A product was added, changed or deleted: drop it and every listing
+     */
+    public synchronized void invalidate(int productId) {
+        generation++;
+        listingGeneration++;
+        byId.remove(productId);
+        listings.clear();
+    }
+    
+    /**
+     * Only the stock of some products changed: drop them and the listings that show them
+     */
+    public synchronized void invalidateStock(Collection<Integer> productIds) {
+        generation++;
+        listingGeneration++;
+        Set<Integer> changed = new HashSet<>(productIds);
+        byId.keySet().removeAll(changed);
+        listings.values().removeIf(entry -> {
+            for (ProductSummary product : entry.value.getItems()) {
+                if (changed.contains(product.getProductId())) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+    
+    /**
+     * A product was added: existing products are unchanged, but every listing may be stale
+     */
+    public synchronized void invalidateListings() {
+        listingGeneration++;
+        listings.clear();
+    }
+    
+    /**
+     * Drop everything (e.g. after a bulk change)
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        listingGeneration++;
+        byId.clear();
+        listings.clear();
+    }
+    
+    public synchronized int size() {
+        return byId.size();
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    // ---------- Statistics ----------
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+    
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+    
+    /**
+     * One-line summary of size and hit rate
+     */
+    public String describe() {
+        synchronized (this) {
+            return String.format("Product cache: products=%d/%d listings=%d hits=%d misses=%d hitRatio=%.1f%%",
+                    byId.size(), maxSize, listings.size(), getHitCount(), getMissCount(), getHitRatio() * 100);
+        }
+    }
+    
+    private void evictOverflow() {
+        while (byId.size() > maxSize) {
+            byId.remove(byId.keySet().iterator().next());
+        }
+    }
+    
+    /**
+     * A cached value with its expiry time
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        
+        Entry(V value, long ttlNanos) {
+            this.value = value;
+            this.expiresAt = System.nanoTime() + ttlNanos;
+        }
+        
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
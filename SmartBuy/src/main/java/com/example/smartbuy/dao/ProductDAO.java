@@ -1,34 +1,104 @@
 package com.example.smartbuy.dao;
 
+import com.example.smartbuy.model.InventorySummary;
+import com.example.smartbuy.model.Page;
+import com.example.smartbuy.model.PageRequest;
+import com.example.smartbuy.model.PagedResult;
 import com.example.smartbuy.model.Product;
+import com.example.smartbuy.model.ProductFilter;
+import com.example.smartbuy.model.ProductSummary;
+import com.example.smartbuy.search.ProductSearchIndex;
+import com.example.smartbuy.search.SuggestionIndex;
 import com.example.smartbuy.util.DatabaseUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  *Product Data Access Object
+ * Storefront reads go through the shared ProductCache, searches through the
+ * ProductSearchIndex and type-ahead through a SuggestionIndex; writes keep them current.
  */
 public class ProductDAO {
     
+    private static final Object SEARCH_INDEX_LOCK = new Object();
+    // Best matches returned by searchProducts; broad terms can match most of the catalog
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    
+    // List views read only what a product card shows; description and specs are left for the detail page
+    private static final String SUMMARY_COLUMNS = "p.product_id, p.product_name, p.brand, p.category_id, " +
+            "c.category_name, p.price, p.stock, p.image_url, p.is_available, p.created_at";
+    
+    // Ids per IN list in getProductsByIds, well under driver and server parameter limits
+    private static final int IN_LIST_CHUNK = InList.MAX_SIZE;
+    
+    private static final Object SUGGESTION_LOCK = new Object();
+    
+    // Storefront grid orders and the columns they page on; stock is nullable, so it pages on 0 instead of NULL
+    private static final Map<ProductFilter.Sort, String> PAGE_SORT_COLUMNS = Map.of(
+            ProductFilter.Sort.NEWEST, "p.created_at",
+            ProductFilter.Sort.PRICE_ASC, "p.price",
+            ProductFilter.Sort.PRICE_DESC, "p.price",
+            ProductFilter.Sort.STOCK_DESC, "COALESCE(p.stock, 0)");
+    
+    // Admin table sort keys (column properties) and the columns they sort on
+    private static final Map<String, String> ADMIN_SORT_COLUMNS = Map.of(
+            "productId", "p.product_id",
+            "productName", "p.product_name",
+            "brand", "p.brand",
+            "categoryName", "c.category_name",
+            "price", "p.price",
+            "stock", "p.stock",
+            "available", "p.is_available");
+    // Rebuilt in the background after a catalog edit, so lookups never wait on the database;
+    // stock changes do not affect it
+    private static volatile SuggestionIndex suggestions;
+    // Set once suggestions are used; processes that never show them never build them
+    private static volatile boolean suggestionsUsed;
+    private static final AtomicBoolean SUGGESTION_REBUILD_PENDING = new AtomicBoolean();
+    private static final ExecutorService SUGGESTION_BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "smartbuy-suggestion-builder");
+        t.setDaemon(true);
+        return t;
+    });
+    
+    private final ProductCache cache = ProductCache.getInstance();
+    private final ProductSearchIndex searchIndex = ProductSearchIndex.getInstance();
+    
     /**
      * Get all available products (user front-end)
      */
-    public List<Product> getAllProducts() throws SQLException {
-        String sql = "SELECT p.*, c.category_name FROM products p " +
+    public List<ProductSummary> getAllProducts() throws SQLException {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM products p " +
                     "JOIN categories c ON p.category_id = c.category_id " +
                     "WHERE p.is_available = TRUE ORDER BY p.created_at DESC";
         
-        List<Product> products = new ArrayList<>();
+        Page<ProductSummary> cached = cache.getListing("all");
+        if (cached != null) {
+            return cached.getItems();
+        }
+        long generation = cache.listingGeneration();
+        
+        List<ProductSummary> products = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                products.add(extractProductFromResultSet(rs));
+                products.add(extractSummaryFromResultSet(rs));
             }
         }
+        cache.putListing("all", new Page<>(products, null), generation);
         return products;
     }
     
@@ -52,15 +122,40 @@ public class ProductDAO {
         return products;
     }
     
+    /**
+     * Get one page of all products, listed or not (administrator function)
+     * Text matches name or brand; the status filter is "available" or "unavailable".
+     */
+    public PagedResult<Product> getProductsForAdmin(PageRequest request) throws SQLException {
+        AdminQuery query = new AdminQuery("p.*, c.category_name",
+                "products p JOIN categories c ON p.category_id = c.category_id");
+        if (request.getTextFilter() != null) {
+            String pattern = AdminQuery.contains(request.getTextFilter());
+            query.where("p.product_name LIKE ? OR p.brand LIKE ?", pattern, pattern);
+        }
+        if (request.getStatusFilter() != null) {
+            query.where("p.is_available = ?", "available".equals(request.getStatusFilter()));
+        }
+        return query.fetch(request, ADMIN_SORT_COLUMNS, "p.created_at", false, "p.product_id",
+                this::extractProductFromResultSet);
+    }
+    
     /**
      * Get products by category
      */
-    public List<Product> getProductsByCategory(int categoryId) throws SQLException {
-        String sql = "SELECT p.*, c.category_name FROM products p " +
+    public List<ProductSummary> getProductsByCategory(int categoryId) throws SQLException {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM products p " +
                     "JOIN categories c ON p.category_id = c.category_id " +
                     "WHERE p.category_id = ? AND p.is_available = TRUE";
         
-        List<Product> products = new ArrayList<>();
+        String key = "category:" + categoryId;
+        Page<ProductSummary> cached = cache.getListing(key);
+        if (cached != null) {
+            return cached.getItems();
+        }
+        long generation = cache.listingGeneration();
+        
+        List<ProductSummary> products = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
@@ -68,12 +163,153 @@ public class ProductDAO {
             ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                products.add(extractProductFromResultSet(rs));
+                products.add(extractSummaryFromResultSet(rs));
             }
         }
+        cache.putListing(key, new Page<>(products, null), generation);
         return products;
     }
     
+    /**
+     * Get one page of available products, newest first (user front-end)
+     * @see #getProductsPage(Integer, ProductFilter, String, int)
+     */
+    public Page<ProductSummary> getProductsPage(Integer categoryId, String pageToken, int pageSize) throws SQLException {
+        return getProductsPage(categoryId, ProductFilter.NONE, pageToken, pageSize);
+    }
+    
+    /**
+     * Get one page of available products matching a filter, in the filter's order (user front-end)
+     * Pages seek on (sort column, product_id), so later pages cost the same as the first
+     * and every filter and sort covers the whole catalog, not just the pages loaded.
+     * @param categoryId Category to list, or null for all categories
+     * @param filter Price range, brand and order
+     * @param pageToken Token from the previous page, or null for the first page
+     * @param pageSize Maximum number of products in the page
+     */
+    public Page<ProductSummary> getProductsPage(Integer categoryId, ProductFilter filter, String pageToken,
+                                                int pageSize) throws SQLException {
+        PageToken after = pageToken == null ? null : PageToken.decode(pageToken);
+        ProductFilter.Sort sort = filter.getSort();
+        String sortColumn = PAGE_SORT_COLUMNS.get(sort);
+        boolean ascending = sort == ProductFilter.Sort.PRICE_ASC;
+        
+        String key = "page:" + categoryId + ":" + filter.key() + ":" + pageSize + ":" + pageToken;
+        Page<ProductSummary> cached = cache.getListing(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.listingGeneration();
+        
+        StringBuilder sql = new StringBuilder(
+                "SELECT " + SUMMARY_COLUMNS + " FROM products p " +
+                "JOIN categories c ON p.category_id = c.category_id " +
+                "WHERE p.is_available = TRUE");
+        if (categoryId != null) {
+            sql.append(" AND p.category_id = ?");
+        }
+        if (filter.getMinPrice() != null) {
+            sql.append(" AND p.price >= ?");
+        }
+        if (filter.getMaxPrice() != null) {
+            sql.append(" AND p.price <= ?");
+        }
+        if (filter.getBrand() != null) {
+            sql.append(" AND p.brand = ?");
+        }
+        if (after != null) {
+            String seek = ascending ? " > " : " < ";
+            sql.append(" AND (").append(sortColumn).append(seek).append("? OR (")
+                    .append(sortColumn).append(" = ? AND p.product_id").append(seek).append("?))");
+        }
+        String direction = ascending ? " ASC" : " DESC";
+        sql.append(" ORDER BY ").append(sortColumn).append(direction)
+                .append(", p.product_id").append(direction).append(" LIMIT ?");
+        
+        List<ProductSummary> products = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            if (categoryId != null) {
+                pstmt.setInt(index++, categoryId);
+            }
+            if (filter.getMinPrice() != null) {
+                pstmt.setBigDecimal(index++, filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                pstmt.setBigDecimal(index++, filter.getMaxPrice());
+            }
+            if (filter.getBrand() != null) {
+                pstmt.setString(index++, filter.getBrand());
+            }
+            if (after != null) {
+                Object sortKey = sort == ProductFilter.Sort.NEWEST
+                        ? Timestamp.valueOf(after.getTimestamp()) : after.getDecimal();
+                pstmt.setObject(index++, sortKey);
+                pstmt.setObject(index++, sortKey);
+                pstmt.setInt(index++, after.getId());
+            }
+            // One extra row tells whether another page follows
+            pstmt.setInt(index, pageSize + 1);
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                products.add(extractSummaryFromResultSet(rs));
+            }
+        }
+        
+        Page<ProductSummary> page;
+        if (products.size() <= pageSize) {
+            page = new Page<>(products, null);
+        } else {
+            products.remove(pageSize);
+            ProductSummary last = products.get(pageSize - 1);
+            page = new Page<>(products, PageToken.encode(sortKeyOf(last, sort), last.getProductId()));
+        }
+        cache.putListing(key, page, generation);
+        return page;
+    }
+    
+    // Value of the page sort column for a product, as stored in its page token
+    private static Object sortKeyOf(ProductSummary product, ProductFilter.Sort sort) {
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                return product.getPrice();
+            case STOCK_DESC:
+                return product.getStock();
+            default:
+                return product.getCreatedAt();
+        }
+    }
+    
+    /**
+     * Get the brands of available products, for the brand filter (user front-end)
+     * @param categoryId Category to list, or null for all categories
+     */
+    public List<String> getBrands(Integer categoryId) throws SQLException {
+        String sql = "SELECT DISTINCT brand FROM products " +
+                    "WHERE is_available = TRUE AND brand IS NOT NULL" +
+                    (categoryId != null ? " AND category_id = ?" : "") +
+                    " ORDER BY brand";
+        
+        List<String> brands = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            if (categoryId != null) {
+                pstmt.setInt(1, categoryId);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                brands.add(rs.getString("brand"));
+            }
+        }
+        return brands;
+    }
+    
     /**
      * Get product by ID
      */
@@ -82,6 +318,12 @@ public class ProductDAO {
                     "JOIN categories c ON p.category_id = c.category_id " +
                     "WHERE p.product_id = ?";
         
+        Product cached = cache.getProduct(productId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.generation();
+        
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
@@ -89,34 +331,167 @@ public class ProductDAO {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return extractProductFromResultSet(rs);
+                Product product = extractProductFromResultSet(rs);
+                cache.putProduct(product, generation);
+                return product;
             }
         }
         return null;
     }
     
+    /**
+     * Get several products by ID in one query per {@value #IN_LIST_CHUNK} IDs
+     * IN lists are padded to a few fixed sizes (see InList), so the SQL text repeats.
+     * Always reads the database, so stock is current, and refreshes the cache with the result.
+     * @param productIds Product IDs (duplicates are ignored)
+     * @return Products by ID, in the order given; IDs that do not exist are absent
+     */
+    public Map<Integer, Product> getProductsByIds(Collection<Integer> productIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        Map<Integer, Product> found = new HashMap<>();
+        long generation = cache.generation();
+        
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+                List<Integer> chunk = InList.padded(ids.subList(from, Math.min(from + IN_LIST_CHUNK, ids.size())));
+                String sql = "SELECT p.*, c.category_name FROM products p " +
+                        "JOIN categories c ON p.category_id = c.category_id " +
+                        "WHERE p.product_id IN (" + InList.placeholders(chunk.size()) + ")";
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    for (Integer productId : chunk) {
+                        pstmt.setInt(index++, productId);
+                    }
+                    ResultSet rs = pstmt.executeQuery();
+                    
+                    while (rs.next()) {
+                        Product product = extractProductFromResultSet(rs);
+                        found.put(product.getProductId(), product);
+                    }
+                }
+            }
+        }
+        
+        Map<Integer, Product> products = new LinkedHashMap<>();
+        for (Integer productId : ids) {
+            Product product = found.get(productId);
+            if (product != null) {
+                cache.putProduct(product, generation);
+                products.put(productId, product);
+            }
+        }
+        return products;
+    }
+    
     /**
      *Search for products (by name or brand)
      */
-    public List<Product> searchProducts(String keyword) throws SQLException {
-        String sql = "SELECT p.*, c.category_name FROM products p " +
-                    "JOIN categories c ON p.category_id = c.category_id " +
-                    "WHERE (p.product_name LIKE ? OR p.brand LIKE ?) AND p.is_available = TRUE";
+    public List<ProductSummary> searchProducts(String keyword) throws SQLException {
+        warmSearchIndex();
+        return searchIndex.search(keyword, SEARCH_RESULT_LIMIT);
+    }
+    
+    /**
+     * Product names and brands starting with the prefix, most sold first
+     * Always answered from memory, never from the database: until warmSearchIndex has
+     * built the index there are no suggestions, and after a catalog edit they may lag
+     * until the background rebuild finishes.
+     * @param prefix Text typed so far
+     * @param limit Maximum suggestions
+     */
+    public List<String> getSuggestions(String prefix, int limit) {
+        suggestionsUsed = true;
+        SuggestionIndex current = suggestions;
+        return current == null ? Collections.emptyList() : current.suggest(prefix, limit);
+    }
+    
+    /**
+     * Build the search and suggestion indexes from the database if they have not been built yet
+     */
+    public void warmSearchIndex() throws SQLException {
+        if (!searchIndex.isLoaded()) {
+            synchronized (SEARCH_INDEX_LOCK) {
+                if (!searchIndex.isLoaded()) {
+                    searchIndex.rebuild(getAllProductsForAdmin());
+                }
+            }
+        }
+        suggestionsUsed = true;
+        if (suggestions == null) {
+            synchronized (SUGGESTION_LOCK) {
+                if (suggestions == null) {
+                    suggestions = SuggestionIndex.build(getAllProductsForAdmin(), getUnitsSold());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Rebuild the suggestion index on its own thread after a catalog edit
+     * Edits made before the rebuild starts share it; one made during it queues another.
+     */
+    private void rebuildSuggestionsLater() {
+        if (!suggestionsUsed || !SUGGESTION_REBUILD_PENDING.compareAndSet(false, true)) {
+            return;
+        }
+        SUGGESTION_BUILDER.execute(() -> {
+            // Cleared before reading so an edit made during the build queues another
+            SUGGESTION_REBUILD_PENDING.set(false);
+            try {
+                synchronized (SUGGESTION_LOCK) {
+                    suggestions = SuggestionIndex.build(getAllProductsForAdmin(), getUnitsSold());
+                }
+            } catch (SQLException | RuntimeException e) {
+                // The previous index keeps answering until the next edit
+                e.printStackTrace();
+            }
+        });
+    }
+    
+    /**
+     * Units sold per product, used as suggestion popularity
+     */
+    private Map<Integer, Long> getUnitsSold() throws SQLException {
+        String sql = "SELECT product_id, SUM(quantity) AS units_sold FROM order_items GROUP BY product_id";
+        Map<Integer, Long> unitsSold = new HashMap<>();
         
-        List<Product> products = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            String searchPattern = "%" + keyword + "%";
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             
-            ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                products.add(extractProductFromResultSet(rs));
+                unitsSold.put(rs.getInt("product_id"), rs.getLong("units_sold"));
+            }
+        }
+        return unitsSold;
+    }
+    
+    /**
+     * The stock of products was changed outside this DAO (e.g. deducted at checkout):
+     * drop their cached copies and the cached listings that show them, and re-index them
+     */
+    public void productsChanged(Collection<Integer> productIds) throws SQLException {
+        cache.invalidateStock(productIds);
+        refreshSearchIndex(productIds);
+    }
+    
+    /**
+     * Re-read products into the search index (no-op until the index is built)
+     */
+    private void refreshSearchIndex(Collection<Integer> productIds) throws SQLException {
+        if (!searchIndex.isLoaded() || productIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, Product> products = getProductsByIds(productIds);
+        for (Integer productId : productIds) {
+            Product product = products.get(productId);
+            if (product != null) {
+                searchIndex.put(product);
+            } else {
+                searchIndex.remove(productId);
             }
         }
-        return products;
     }
     
     /**
@@ -126,8 +501,9 @@ public class ProductDAO {
         String sql = "INSERT INTO products (product_name, brand, category_id, price, stock, description, specs, image_url) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         
+        boolean added;
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, product.getProductName());
             pstmt.setString(2, product.getBrand());
@@ -138,34 +514,69 @@ public class ProductDAO {
             pstmt.setString(7, product.getSpecs());
             pstmt.setString(8, product.getImageUrl());
             
-            return pstmt.executeUpdate() > 0;
+            added = pstmt.executeUpdate() > 0;
+            ResultSet rs = pstmt.getGeneratedKeys();
+            if (rs.next()) {
+                product.setProductId(rs.getInt(1));
+            }
+        } finally {
+            cache.invalidateListings();
+            rebuildSuggestionsLater();
+        }
+        if (added && product.getProductId() > 0) {
+            refreshSearchIndex(Collections.singletonList(product.getProductId()));
         }
+        return added;
     }
     
     /**
      * Update Product
      */
     public boolean updateProduct(Product product) throws SQLException {
-        String sql = "UPDATE products SET product_name = ?, brand = ?, category_id = ?, " +
-                    "price = ?, stock = ?, description = ?, specs = ?, image_url = ?, is_available = ? " +
+        return updateProduct(product, true);
+    }
+    
+    /**
+     * Update every field of a product except its stock
+     * For products whose stock is held elsewhere (hot products, see InventoryReservationService):
+     * the stock in an edited Product was read earlier and may be stale by now.
+     */
+    public boolean updateProductDetails(Product product) throws SQLException {
+        return updateProduct(product, false);
+    }
+    
+    private boolean updateProduct(Product product, boolean includeStock) throws SQLException {
+        String sql = "UPDATE products SET product_name = ?, brand = ?, category_id = ?, price = ?, " +
+                    (includeStock ? "stock = ?, " : "") +
+                    "description = ?, specs = ?, image_url = ?, is_available = ? " +
                     "WHERE product_id = ?";
         
+        boolean updated;
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, product.getProductName());
-            pstmt.setString(2, product.getBrand());
-            pstmt.setInt(3, product.getCategoryId());
-            pstmt.setBigDecimal(4, product.getPrice());
-            pstmt.setInt(5, product.getStock());
-            pstmt.setString(6, product.getDescription());
-            pstmt.setString(7, product.getSpecs());
-            pstmt.setString(8, product.getImageUrl());
-            pstmt.setBoolean(9, product.isAvailable());
-            pstmt.setInt(10, product.getProductId());
+            int index = 1;
+            pstmt.setString(index++, product.getProductName());
+            pstmt.setString(index++, product.getBrand());
+            pstmt.setInt(index++, product.getCategoryId());
+            pstmt.setBigDecimal(index++, product.getPrice());
+            if (includeStock) {
+                pstmt.setInt(index++, product.getStock());
+            }
+            pstmt.setString(index++, product.getDescription());
+            pstmt.setString(index++, product.getSpecs());
+            pstmt.setString(index++, product.getImageUrl());
+            pstmt.setBoolean(index++, product.isAvailable());
+            pstmt.setInt(index, product.getProductId());
             
-            return pstmt.executeUpdate() > 0;
+            updated = pstmt.executeUpdate() > 0;
+        } finally {
+            cache.invalidate(product.getProductId());
+            rebuildSuggestionsLater();
         }
+        // After the connection is returned, so one edit never holds two
+        refreshSearchIndex(Collections.singletonList(product.getProductId()));
+        return updated;
     }
     
     /**
@@ -178,7 +589,14 @@ public class ProductDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, productId);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) {
+                searchIndex.remove(productId);
+            }
+            return deleted;
+        } finally {
+            cache.invalidate(productId);
+            rebuildSuggestionsLater();
         }
     }
     
@@ -188,14 +606,42 @@ public class ProductDAO {
     public boolean updateStock(int productId, int newStock) throws SQLException {
         String sql = "UPDATE products SET stock = ? WHERE product_id = ?";
         
+        boolean updated;
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, newStock);
             pstmt.setInt(2, productId);
             
-            return pstmt.executeUpdate() > 0;
+            updated = pstmt.executeUpdate() > 0;
+        } finally {
+            cache.invalidateStock(Collections.singletonList(productId));
+        }
+        // After the connection is returned, so one edit never holds two
+        refreshSearchIndex(Collections.singletonList(productId));
+        return updated;
+    }
+    
+    /**
+     * Get product count and low stock count (admin backend), counted in the database
+     * @param lowStockThreshold Products with stock below this count as low stock
+     */
+    public InventorySummary getInventorySummary(int lowStockThreshold) throws SQLException {
+        String sql = "SELECT COUNT(*) AS product_count, " +
+                    "COALESCE(SUM(CASE WHEN stock < ? THEN 1 ELSE 0 END), 0) AS low_stock_count " +
+                    "FROM products";
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, lowStockThreshold);
+            ResultSet rs = pstmt.executeQuery();
+            
+            if (rs.next()) {
+                return new InventorySummary(rs.getInt("product_count"), rs.getInt("low_stock_count"));
+            }
         }
+        return new InventorySummary();
     }
     
     /**
@@ -218,4 +664,21 @@ public class ProductDAO {
         product.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
         return product;
     }
+    
+    /**
+     * Extract ProductSummary object from a ResultSet of SUMMARY_COLUMNS
+     */
+    private ProductSummary extractSummaryFromResultSet(ResultSet rs) throws SQLException {
+        return new ProductSummary(
+                rs.getInt("product_id"),
+                rs.getString("product_name"),
+                rs.getString("brand"),
+                rs.getInt("category_id"),
+                rs.getString("category_name"),
+                rs.getBigDecimal("price"),
+                rs.getInt("stock"),
+                rs.getString("image_url"),
+                rs.getBoolean("is_available"),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
 }
@@ -1,17 +1,29 @@
 package com.example.smartbuy.dao;
 
+import com.example.smartbuy.model.PageRequest;
+import com.example.smartbuy.model.PagedResult;
 import com.example.smartbuy.model.User;
 import com.example.smartbuy.util.DatabaseUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User data access object
  */
 public class UserDAO {
     
+    // Sort keys of the admin users table
+    private static final Map<String, String> ADMIN_SORT_COLUMNS = Map.of(
+            "userId", "user_id",
+            "username", "username",
+            "fullName", "full_name",
+            "email", "email",
+            "role", "role",
+            "createdAt", "created_at");
+    
     /**
      * 用户登录验证
      */
@@ -146,6 +158,23 @@ public class UserDAO {
         return users;
     }
     
+    /**
+     * Get one page of users (administrator function)
+     * Text matches username, full name or email; the status filter is a role.
+     */
+    public PagedResult<User> getUsersForAdmin(PageRequest request) throws SQLException {
+        AdminQuery query = new AdminQuery("*", "users");
+        if (request.getTextFilter() != null) {
+            String pattern = AdminQuery.contains(request.getTextFilter());
+            query.where("username LIKE ? OR full_name LIKE ? OR email LIKE ?", pattern, pattern, pattern);
+        }
+        if (request.getStatusFilter() != null) {
+            query.where("role = ?", request.getStatusFilter());
+        }
+        return query.fetch(request, ADMIN_SORT_COLUMNS, "created_at", false, "user_id",
+                this::extractUserFromResultSet);
+    }
+    
     /**
      * Extract the User object from the ResultSet
      */
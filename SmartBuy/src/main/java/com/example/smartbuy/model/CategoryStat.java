@@ -0,0 +1,44 @@
+package com.example.smartbuy.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Category Sales Statistics Entity Class
+ */
+public class CategoryStat {
+    private String categoryName;
+    private int totalQuantity;
+    private BigDecimal totalRevenue;
+    
+    // Constructor
+    public CategoryStat(String categoryName) {
+        this(categoryName, 0, BigDecimal.ZERO);
+    }
+    
+    public CategoryStat(String categoryName, int totalQuantity, BigDecimal totalRevenue) {
+        this.categoryName = categoryName;
+        this.totalQuantity = totalQuantity;
+        this.totalRevenue = totalRevenue;
+    }
+    
+    public void addQuantity(int qty) {
+        this.totalQuantity += qty;
+    }
+    
+    public void addRevenue(BigDecimal amount) {
+        this.totalRevenue = this.totalRevenue.add(amount);
+    }
+    
+    // Getters
+    public String getCategoryName() {
+        return categoryName;
+    }
+    
+    public int getTotalQuantity() {
+        return totalQuantity;
+    }
+    
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.smartbuy.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a checkout: the new order ID, or the lines that could not be filled
+ */
+public class CheckoutResult {
+    private final int orderId;
+    private final List<Shortfall> shortfalls;
+
+    // Constructor
+    private CheckoutResult(int orderId, List<Shortfall> shortfalls) {
+        this.orderId = orderId;
+        this.shortfalls = shortfalls;
+    }
+
+    public static CheckoutResult placed(int orderId) {
+        return new CheckoutResult(orderId, new ArrayList<>());
+    }
+
+    public static CheckoutResult rejected(List<Shortfall> shortfalls) {
+        return new CheckoutResult(-1, shortfalls);
+    }
+
+    // Getters
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public List<Shortfall> getShortfalls() {
+        return shortfalls;
+    }
+
+    public boolean isPlaced() {
+        return shortfalls.isEmpty() && orderId > 0;
+    }
+
+    /**
+     * A product with less stock than the order asked for
+     */
+    public static class Shortfall {
+        private final int productId;
+        private final String productName;
+        private final int requested;
+        private final int available;
+
+        public Shortfall(int productId, String productName, int requested, int available) {
+            this.productId = productId;
+            this.productName = productName;
+            this.requested = requested;
+            this.available = available;
+        }
+
+        public int getProductId() {
+            return productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public int getRequested() {
+            return requested;
+        }
+
+        public int getAvailable() {
+            return available;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.smartbuy.model;
+
+/**
+ * Inventory Summary Entity Class (product count and low stock count)
+ */
+public class InventorySummary {
+    private int productCount;
+    private int lowStockCount;
+    
+    // Constructor
+    public InventorySummary() {}
+    
+    public InventorySummary(int productCount, int lowStockCount) {
+        this.productCount = productCount;
+        this.lowStockCount = lowStockCount;
+    }
+    
+    // Getters and Setters
+    public int getProductCount() {
+        return productCount;
+    }
+    
+    public void setProductCount(int productCount) {
+        this.productCount = productCount;
+    }
+    
+    public int getLowStockCount() {
+        return lowStockCount;
+    }
+    
+    public void setLowStockCount(int lowStockCount) {
+        this.lowStockCount = lowStockCount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.smartbuy.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query
+ * nextPageToken is passed back to fetch the following page; it is null on the last page.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextPageToken;
+    
+    // Constructor
+    public Page(List<T> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+    
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+    
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.smartbuy.model;
+
+/**
+ * One page of an admin table: which rows, in what order, matching which filters
+ * The sort key is a column property name (e.g. "price"); each DAO maps it to SQL
+ * through its own whitelist and falls back to its default order for unknown keys.
+ */
+public class PageRequest {
+    private final int pageIndex;
+    private final int pageSize;
+    private final String sortKey;
+    private final boolean ascending;
+    private final String textFilter;
+    private final String statusFilter;
+
+    // Constructor
+    public PageRequest(int pageIndex, int pageSize, String sortKey, boolean ascending,
+                       String textFilter, String statusFilter) {
+        this.pageIndex = Math.max(0, pageIndex);
+        this.pageSize = Math.max(1, pageSize);
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        this.textFilter = textFilter == null || textFilter.trim().isEmpty() ? null : textFilter.trim();
+        this.statusFilter = statusFilter == null || statusFilter.isEmpty() ? null : statusFilter;
+    }
+
+    // Getters
+    public int getPageIndex() {
+        return pageIndex;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getOffset() {
+        return pageIndex * pageSize;
+    }
+
+    /**
+     * Column property to sort on, or null for the table's default order
+     */
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Text to search for, or null for no text filter
+     */
+    public String getTextFilter() {
+        return textFilter;
+    }
+
+    /**
+     * Status (or role) to match exactly, or null for all
+     */
+    public String getStatusFilter() {
+        return statusFilter;
+    }
+
+    /**
+     * The same sort and filters on another page
+     */
+    public PageRequest withPage(int pageIndex) {
+        return new PageRequest(pageIndex, pageSize, sortKey, ascending, textFilter, statusFilter);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.smartbuy.model;
+
+import java.util.List;
+
+/**
+ * One page of an admin table with the total number of matching rows
+ * Unlike Page, which is keyset-paginated for endless lists, it supports jumping
+ * to any page of a sorted, filtered table.
+ */
+public class PagedResult<T> {
+    private final List<T> items;
+    private final int pageIndex;
+    private final int pageSize;
+    private final int totalCount;
+
+    // Constructor
+    public PagedResult(List<T> items, int pageIndex, int pageSize, int totalCount) {
+        this.items = items;
+        this.pageIndex = pageIndex;
+        this.pageSize = pageSize;
+        this.totalCount = totalCount;
+    }
+
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Index of this page, which may be lower than requested if the table shrank
+     */
+    public int getPageIndex() {
+        return pageIndex;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getPageCount() {
+        return Math.max(1, (totalCount + pageSize - 1) / pageSize);
+    }
+
+    public boolean hasPreviousPage() {
+        return pageIndex > 0;
+    }
+
+    public boolean hasNextPage() {
+        return pageIndex + 1 < getPageCount();
+    }
+}
@@ -33,6 +33,22 @@ public class Product {
         this.isAvailable = true;
     }
     
+    public Product(Product other) {
+        this.productId = other.productId;
+        this.productName = other.productName;
+        this.brand = other.brand;
+        this.categoryId = other.categoryId;
+        this.categoryName = other.categoryName;
+        this.price = other.price;
+        this.stock = other.stock;
+        this.description = other.description;
+        this.specs = other.specs;
+        this.imageUrl = other.imageUrl;
+        this.isAvailable = other.isAvailable;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     // Getters and Setters
     public int getProductId() {
         return productId;
@@ -0,0 +1,69 @@
+package com.example.smartbuy.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Price range, brand and order of the storefront product grid
+ * Applied by the database to the whole catalog, page by page (see ProductDAO.getProductsPage).
+ */
+public class ProductFilter {
+
+    /**
+     * Grid order; each is paged on its sort column and then product_id
+     */
+    public enum Sort {
+        NEWEST,
+        PRICE_ASC,
+        PRICE_DESC,
+        STOCK_DESC
+    }
+
+    // No filter, newest first
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, Sort.NEWEST);
+
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final String brand;
+    private final Sort sort;
+
+    // Constructor
+    public ProductFilter(BigDecimal minPrice, BigDecimal maxPrice, String brand, Sort sort) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.brand = brand == null || brand.isEmpty() ? null : brand;
+        this.sort = sort == null ? Sort.NEWEST : sort;
+    }
+
+    // Getters
+    /**
+     * Lowest price shown, or null for no lower bound
+     */
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Highest price shown, or null for no upper bound
+     */
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Brand to match exactly, or null for all brands
+     */
+    public String getBrand() {
+        return brand;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * Text identifying this filter, e.g. for cache keys
+     */
+    public String key() {
+        return minPrice + ":" + maxPrice + ":" + brand + ":" + sort;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.smartbuy.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Product fields shown in list views (product grid, hot products, search results)
+ * Leaves out description and specs; the detail page loads the full Product by id.
+ * Immutable, so cached summaries can be shared without copying.
+ */
+public class ProductSummary {
+    private final int productId;
+    private final String productName;
+    private final String brand;
+    private final int categoryId;
+    private final String categoryName;
+    private final BigDecimal price;
+    private final int stock;
+    private final String imageUrl;
+    private final boolean isAvailable;
+    private final LocalDateTime createdAt;
+
+    // Constructor
+    public ProductSummary(int productId, String productName, String brand, int categoryId, String categoryName,
+                          BigDecimal price, int stock, String imageUrl, boolean isAvailable, LocalDateTime createdAt) {
+        this.productId = productId;
+        this.productName = productName;
+        this.brand = brand;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.price = price;
+        this.stock = stock;
+        this.imageUrl = imageUrl;
+        this.isAvailable = isAvailable;
+        this.createdAt = createdAt;
+    }
+
+    public ProductSummary(Product product) {
+        this(product.getProductId(), product.getProductName(), product.getBrand(), product.getCategoryId(),
+                product.getCategoryName(), product.getPrice(), product.getStock(), product.getImageUrl(),
+                product.isAvailable(), product.getCreatedAt());
+    }
+
+    // Getters
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public boolean isAvailable() {
+        return isAvailable;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isInStock() {
+        return stock > 0 && isAvailable;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSummary{" +
+                "productId=" + productId +
+                ", productName='" + productName + '\'' +
+                ", brand='" + brand + '\'' +
+                ", price=" + price +
+                ", stock=" + stock +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.smartbuy.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales Summary Entity Class (order count, revenue and units sold)
+ */
+public class SalesSummary {
+    private int orderCount;
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private int totalItemsSold;
+    
+    // Constructor
+    public SalesSummary() {}
+    
+    public SalesSummary(int orderCount, BigDecimal totalRevenue, int totalItemsSold) {
+        this.orderCount = orderCount;
+        this.totalRevenue = totalRevenue;
+        this.totalItemsSold = totalItemsSold;
+    }
+    
+    // Getters and Setters
+    public int getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(int orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+    
+    public void setTotalRevenue(BigDecimal totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+    
+    public int getTotalItemsSold() {
+        return totalItemsSold;
+    }
+    
+    public void setTotalItemsSold(int totalItemsSold) {
+        this.totalItemsSold = totalItemsSold;
+    }
+}
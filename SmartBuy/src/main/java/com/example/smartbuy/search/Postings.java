@@ -0,0 +1,50 @@
+package com.example.smartbuy.search;
+
+import java.util.Arrays;
+
+/**
+ * Posting list: ids in ascending order, each with a frequency
+ * Used for term -> products in ProductSearchIndex and trigram -> terms in TrigramIndex.
+ */
+class Postings {
+    int[] ids = new int[4];
+    int[] frequencies = new int[4];
+    int size;
+
+    void add(int id, int frequency) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            frequencies[pos] = frequency;
+            return;
+        }
+        pos = -pos - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        // Ids are mostly handed out in increasing order, so this is normally an append
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        System.arraycopy(frequencies, pos, frequencies, pos + 1, size - pos);
+        ids[pos] = id;
+        frequencies[pos] = frequency;
+        size++;
+    }
+
+    void remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        System.arraycopy(frequencies, pos + 1, frequencies, pos, size - pos - 1);
+        size--;
+    }
+
+    /**
+     * Frequency stored for the id, or 0 if it is not in the list
+     */
+    int frequency(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        return pos >= 0 ? frequencies[pos] : 0;
+    }
+}
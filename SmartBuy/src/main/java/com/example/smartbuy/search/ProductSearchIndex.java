@@ -0,0 +1,491 @@
+package com.example.smartbuy.search;
+
+import com.example.smartbuy.model.Product;
+import com.example.smartbuy.model.ProductSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the product catalog
+ * Name, brand, category and description are tokenized into one posting list per
+ * term. A query matches products containing every term (the last term may also
+ * be a prefix, for search-as-you-type), ranked by BM25 with name and brand
+ * weighted above category and description. When a query finds nothing, each
+ * term that is not in the index is replaced by the closest name or brand terms
+ * within one or two edits ("samsng" -> "samsung"), using a TrigramIndex.
+ * Documents keep only a ProductSummary; descriptions are indexed, not stored.
+ * ProductDAO builds the index on first use and keeps it current on every write.
+ */
+public class ProductSearchIndex {
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // A term in the name counts as three occurrences, and so on
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 1;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Most terms a trailing prefix may expand to
+    private static final int MAX_PREFIX_TERMS = 64;
+    // Most spelling corrections tried for one misspelled term
+    private static final int MAX_CORRECTIONS = 3;
+
+    private static final ProductSearchIndex INSTANCE = new ProductSearchIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sorted so the terms sharing a prefix are one contiguous range
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    // Name and brand terms, for spelling correction
+    private final TrigramIndex vocabulary = new TrigramIndex();
+    // Per product id (ids are auto-increment, so dense arrays beat maps in the scoring loop)
+    private int[] lengths = new int[1024];
+    private final BitSet available = new BitSet();
+    private long totalLength;
+    private volatile boolean loaded;
+
+    public static ProductSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Whether the index has been built from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replace the whole index contents
+     * @param products Every product in the catalog
+     */
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            vocabulary.clear();
+            available.clear();
+            lengths = new int[1024];
+            totalLength = 0;
+            for (Product product : products) {
+                addDocument(product);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a product, or re-index it if it is already present
+     */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getProductId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find available products containing every query term, best match first
+     * If nothing matches, misspelled terms are corrected and the search is retried.
+     * @param query Free text; the last term also matches as a prefix
+     * @param limit Maximum results, or 0 for all
+     * @return Summaries of the matching products
+     */
+    public List<ProductSummary> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Each query term resolves to one or more posting lists (several for a prefix)
+            List<Postings[]> termPostings = new ArrayList<>();
+            boolean allFound = true;
+            for (int i = 0; i < terms.size(); i++) {
+                Postings[] lists = lookup(terms.get(i), i == terms.size() - 1);
+                allFound &= lists.length > 0;
+                termPostings.add(lists);
+            }
+            if (allFound) {
+                List<ProductSummary> results = rank(termPostings, limit);
+                if (!results.isEmpty()) {
+                    return results;
+                }
+            }
+
+            // Fallback: swap each unknown term for its closest spellings
+            for (int i = 0; i < terms.size(); i++) {
+                if (termPostings.get(i).length == 0) {
+                    Postings[] corrections = corrections(terms.get(i));
+                    if (corrections.length == 0) {
+                        return new ArrayList<>();
+                    }
+                    termPostings.set(i, corrections);
+                }
+            }
+            return rank(termPostings, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Score the products matching every term and return the best ones
+     * Caller holds the read lock.
+     */
+    private List<ProductSummary> rank(List<Postings[]> termPostings, int limit) {
+        // Drive the AND from the rarest term, probing the others per candidate
+        int driver = 0;
+        for (int i = 1; i < termPostings.size(); i++) {
+            if (documentCount(termPostings.get(i)) < documentCount(termPostings.get(driver))) {
+                driver = i;
+            }
+        }
+
+        int n = documents.size();
+        double avgLength = n == 0 ? 1.0 : (double) totalLength / n;
+        double[][] idf = new double[termPostings.size()][];
+        for (int t = 0; t < termPostings.size(); t++) {
+            Postings[] lists = termPostings.get(t);
+            idf[t] = new double[lists.length];
+            for (int l = 0; l < lists.length; l++) {
+                int df = lists[l].size;
+                idf[t][l] = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            }
+        }
+
+        TopHits hits = new TopHits(limit);
+        Postings[] driverLists = termPostings.get(driver);
+        BitSet seen = driverLists.length > 1 ? new BitSet() : null;
+        for (int l = 0; l < driverLists.length; l++) {
+            Postings list = driverLists[l];
+            for (int i = 0; i < list.size; i++) {
+                int productId = list.ids[i];
+                if (!available.get(productId)) {
+                    continue;
+                }
+                if (seen != null) {
+                    if (seen.get(productId)) {
+                        continue;
+                    }
+                    seen.set(productId);
+                }
+                double norm = K1 * (1 - B + B * lengths[productId] / avgLength);
+                double score = bm25(idf[driver][l], list.frequencies[i], norm);
+                boolean matchesAll = true;
+                for (int t = 0; t < termPostings.size(); t++) {
+                    if (t == driver) {
+                        continue;
+                    }
+                    double termScore = score(termPostings.get(t), idf[t], productId, norm);
+                    if (termScore < 0) {
+                        matchesAll = false;
+                        break;
+                    }
+                    score += termScore;
+                }
+                if (matchesAll) {
+                    hits.offer(productId, score);
+                }
+            }
+        }
+
+        int[] ranked = hits.toSortedIds();
+        List<ProductSummary> results = new ArrayList<>(ranked.length);
+        for (int productId : ranked) {
+            results.add(documents.get(productId).product);
+        }
+        return results;
+    }
+
+    /**
+     * Posting lists of the closest name/brand spellings of a term, closest and most common first
+     * Caller holds the read lock.
+     */
+    private Postings[] corrections(String term) {
+        int maxEdits = term.length() < 4 ? 0 : term.length() < 8 ? 1 : 2;
+        if (maxEdits == 0) {
+            return new Postings[0];
+        }
+        List<TrigramIndex.Match> matches = vocabulary.closest(term, maxEdits);
+        matches.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : Integer.compare(postings.get(b.term).size, postings.get(a.term).size));
+        int count = Math.min(MAX_CORRECTIONS, matches.size());
+        Postings[] lists = new Postings[count];
+        for (int i = 0; i < count; i++) {
+            lists[i] = postings.get(matches.get(i).term);
+        }
+        return lists;
+    }
+
+    /**
+     * Split text into lower-case letter/digit runs
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                current.append(Character.toLowerCase(ch));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    // Caller holds the read lock
+    private Postings[] lookup(String term, boolean allowPrefix) {
+        List<Postings> lists = new ArrayList<>();
+        Postings exact = postings.get(term);
+        if (exact != null) {
+            lists.add(exact);
+        }
+        if (allowPrefix) {
+            SortedMap<String, Postings> range = postings.subMap(term + Character.MIN_VALUE, term + Character.MAX_VALUE);
+            for (Postings list : range.values()) {
+                if (lists.size() >= MAX_PREFIX_TERMS) {
+                    break;
+                }
+                lists.add(list);
+            }
+        }
+        return lists.toArray(new Postings[0]);
+    }
+
+    private static int documentCount(Postings[] lists) {
+        int count = 0;
+        for (Postings list : lists) {
+            count += list.size;
+        }
+        return count;
+    }
+
+    /**
+     * BM25 score of one query term for one product, or -1 if the product lacks it
+     * For a prefix, the first expansion the product contains counts (the exact term comes first).
+     */
+    private static double score(Postings[] lists, double[] idf, int productId, double norm) {
+        for (int l = 0; l < lists.length; l++) {
+            int tf = lists[l].frequency(productId);
+            if (tf > 0) {
+                return bm25(idf[l], tf, norm);
+            }
+        }
+        return -1;
+    }
+    
+    private static double bm25(double idf, int tf, double norm) {
+        return idf * tf * (K1 + 1) / (tf + norm);
+    }
+
+    // Caller holds the write lock
+    private void addDocument(Product product) {
+        int productId = product.getProductId();
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        addField(terms, product.getProductName(), NAME_WEIGHT);
+        addField(terms, product.getBrand(), BRAND_WEIGHT);
+        addField(terms, product.getCategoryName(), CATEGORY_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        int length = 0;
+        for (Map.Entry<String, Integer> e : terms.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new Postings()).add(productId, e.getValue());
+            length += e.getValue();
+        }
+        Set<String> spelledTerms = new HashSet<>(tokenize(product.getProductName()));
+        spelledTerms.addAll(tokenize(product.getBrand()));
+        for (String term : spelledTerms) {
+            vocabulary.add(term);
+        }
+        documents.put(productId, new Document(new ProductSummary(product), terms.keySet(), spelledTerms, length));
+        if (productId >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(productId + 1, lengths.length * 2));
+        }
+        lengths[productId] = length;
+        available.set(productId, product.isAvailable());
+        totalLength += length;
+    }
+
+    // Caller holds the write lock
+    private void removeDocument(int productId) {
+        Document doc = documents.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.remove(productId);
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String term : doc.spelledTerms) {
+            vocabulary.remove(term);
+        }
+        lengths[productId] = 0;
+        available.clear(productId);
+        totalLength -= doc.length;
+    }
+
+    private static void addField(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * Keeps the best {@code limit} hits in a min-heap (all hits if limit is 0)
+     * Ties go to the higher (newer) product id.
+     */
+    private static class TopHits {
+        private final int limit;
+        private int[] ids = new int[16];
+        private double[] scores = new double[16];
+        private int size;
+
+        TopHits(int limit) {
+            this.limit = limit;
+        }
+
+        void offer(int productId, double score) {
+            if (limit > 0 && size == limit) {
+                if (!better(productId, score, ids[0], scores[0])) {
+                    return;
+                }
+                ids[0] = productId;
+                scores[0] = score;
+                siftDown(0, size);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            ids[i] = productId;
+            scores[i] = score;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(ids[parent], scores[parent], ids[i], scores[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        /**
+         * Drain the heap, best hit first
+         */
+        int[] toSortedIds() {
+            int[] sorted = new int[size];
+            for (int end = size - 1; end >= 0; end--) {
+                sorted[end] = ids[0];
+                swap(0, end);
+                siftDown(0, end);
+            }
+            size = 0;
+            return sorted;
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && better(ids[child], scores[child], ids[child + 1], scores[child + 1])) {
+                    child++;
+                }
+                if (!better(ids[i], scores[i], ids[child], scores[child])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private static boolean better(int id, double score, int otherId, double otherScore) {
+            return score > otherScore || (score == otherScore && id > otherId);
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    /**
+     * An indexed product and the terms it was indexed under
+     */
+    private static class Document {
+        private final ProductSummary product;
+        private final Collection<String> terms;
+        // Name and brand terms added to the spelling vocabulary
+        private final Collection<String> spelledTerms;
+        private final int length;
+
+        Document(ProductSummary product, Collection<String> terms, Collection<String> spelledTerms, int length) {
+            this.product = product;
+            this.terms = new ArrayList<>(terms);
+            this.spelledTerms = new ArrayList<>(spelledTerms);
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.smartbuy.search;
+
+import com.example.smartbuy.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Type-ahead suggestions from product names and brands
+ * Every word start of every suggestion is a key in one sorted array, so typing
+ * "gal" finds "Samsung Galaxy S24". A prefix is a contiguous range of keys,
+ * found by binary search. A segment tree over the keys holds the most popular
+ * (most units sold) entry of each span, so the top K of a range is taken in
+ * O(K log n) however many keys share the prefix. The index is immutable;
+ * ProductDAO builds a new one when the catalog changes.
+ */
+public class SuggestionIndex {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String[] keys;
+    private final int[] entryOfKey;
+    private final String[] entries;
+    private final long[] popularity;
+    // best[leaves + i] is key i; every inner node holds the better key of its two children
+    private final int leaves;
+    private final int[] best;
+
+    private SuggestionIndex(String[] keys, int[] entryOfKey, String[] entries, long[] popularity) {
+        this.keys = keys;
+        this.entryOfKey = entryOfKey;
+        this.entries = entries;
+        this.popularity = popularity;
+        this.leaves = Math.max(1, keys.length);
+        this.best = new int[2 * leaves];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < keys.length; i++) {
+            best[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            best[node] = better(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Build the index from the available products
+     * @param products Catalog (unavailable products are skipped)
+     * @param unitsSold Units sold per product id; missing ids count as 0
+     */
+    public static SuggestionIndex build(Collection<Product> products, Map<Integer, Long> unitsSold) {
+        // Keyed by lower-case text; a brand scores the sales of all its products
+        Map<String, Candidate> byText = new LinkedHashMap<>();
+        for (Product product : products) {
+            if (!product.isAvailable()) {
+                continue;
+            }
+            long sold = unitsSold.getOrDefault(product.getProductId(), 0L);
+            addEntry(byText, product.getProductName(), sold);
+            addEntry(byText, product.getBrand(), sold);
+        }
+
+        String[] entries = new String[byText.size()];
+        long[] popularity = new long[byText.size()];
+        List<Key> keyList = new ArrayList<>();
+        int entry = 0;
+        for (Map.Entry<String, Candidate> e : byText.entrySet()) {
+            entries[entry] = e.getValue().text;
+            popularity[entry] = e.getValue().unitsSold;
+            String text = e.getKey();
+            for (int i = 0; i < text.length(); i++) {
+                boolean wordStart = i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+                if (wordStart && Character.isLetterOrDigit(text.charAt(i))) {
+                    keyList.add(new Key(text.substring(i), entry));
+                }
+            }
+            entry++;
+        }
+
+        Key[] sorted = keyList.toArray(new Key[0]);
+        Arrays.sort(sorted, (a, b) -> a.text.compareTo(b.text));
+        String[] keys = new String[sorted.length];
+        int[] entryOfKey = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = sorted[i].text;
+            entryOfKey[i] = sorted[i].entry;
+        }
+        return new SuggestionIndex(keys, entryOfKey, entries, popularity);
+    }
+
+    /**
+     * Most popular names and brands with a word starting with the prefix
+     * @param prefix Text typed so far
+     * @param limit Maximum suggestions
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        List<String> results = new ArrayList<>();
+        if (from >= to) {
+            return results;
+        }
+
+        // Best-first over sub-ranges: taking a range's best key splits the rest of it in two
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[2] == b[2] ? 0 : better(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[]{from, to, bestIn(from, to)});
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && results.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[2];
+            if (seen.add(entryOfKey[key])) {
+                results.add(entries[entryOfKey[key]]);
+            }
+            if (range[0] < key) {
+                ranges.add(new int[]{range[0], key, bestIn(range[0], key)});
+            }
+            if (key + 1 < range[1]) {
+                ranges.add(new int[]{key + 1, range[1], bestIn(key + 1, range[1])});
+            }
+        }
+        return results;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    // Best key in [from, to)
+    private int bestIn(int from, int to) {
+        int result = -1;
+        for (int low = from + leaves, high = to + leaves; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                result = better(result, best[low++]);
+            }
+            if ((high & 1) == 1) {
+                result = better(result, best[--high]);
+            }
+        }
+        return result;
+    }
+
+    // The key whose entry ranks higher: more popular, then shorter, then alphabetical (-1 is no key)
+    private int better(int keyA, int keyB) {
+        if (keyA < 0 || keyB < 0) {
+            return keyA < 0 ? keyB : keyA;
+        }
+        int a = entryOfKey[keyA];
+        int b = entryOfKey[keyB];
+        if (popularity[a] != popularity[b]) {
+            return popularity[a] > popularity[b] ? keyA : keyB;
+        }
+        if (entries[a].length() != entries[b].length()) {
+            return entries[a].length() < entries[b].length() ? keyA : keyB;
+        }
+        int order = entries[a].compareTo(entries[b]);
+        return order != 0 ? (order < 0 ? keyA : keyB) : Math.min(keyA, keyB);
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void addEntry(Map<String, Candidate> byText, String text, long sold) {
+        if (text == null || text.trim().isEmpty()) {
+            return;
+        }
+        byText.computeIfAbsent(normalize(text), k -> new Candidate(text.trim())).unitsSold += sold;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A word-start suffix of an entry
+     */
+    private static class Key {
+        private final String text;
+        private final int entry;
+
+        Key(String text, int entry) {
+            this.text = text;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * A suggestion being collected during build
+     */
+    private static class Candidate {
+        private final String text;
+        private long unitsSold;
+
+        Candidate(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.smartbuy.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over a term vocabulary, for finding terms within a small edit distance
+ * Each term is padded ("$term$") and split into trigrams. An edit changes at most
+ * three trigrams (four for a swap of adjacent letters), so a term within k edits
+ * of the query shares at least (query trigrams - 4k) of them. Only terms reaching
+ * that count, with a length within k, are checked with a bounded edit distance
+ * that counts an adjacent swap ("iphnoe") as one edit.
+ * Work depends on the vocabulary, not the catalog size.
+ * Terms are reference counted, so a term used by many products stays until the last goes.
+ * Not thread-safe; ProductSearchIndex guards it with its own lock.
+ */
+class TrigramIndex {
+
+    private final Map<String, Integer> idsByTerm = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private int[] refCounts = new int[64];
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final Map<String, Postings> termsByGram = new HashMap<>();
+
+    void add(String term) {
+        Integer id = idsByTerm.get(term);
+        if (id != null) {
+            refCounts[id]++;
+            return;
+        }
+        id = freeIds.isEmpty() ? terms.size() : freeIds.pop();
+        if (id == terms.size()) {
+            terms.add(term);
+        } else {
+            terms.set(id, term);
+        }
+        if (id >= refCounts.length) {
+            refCounts = Arrays.copyOf(refCounts, refCounts.length * 2);
+        }
+        refCounts[id] = 1;
+        idsByTerm.put(term, id);
+        for (String gram : trigrams(term)) {
+            termsByGram.computeIfAbsent(gram, k -> new Postings()).add(id, 1);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = idsByTerm.get(term);
+        if (id == null || --refCounts[id] > 0) {
+            return;
+        }
+        idsByTerm.remove(term);
+        terms.set(id, null);
+        freeIds.push(id);
+        for (String gram : trigrams(term)) {
+            Postings list = termsByGram.get(gram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size == 0) {
+                    termsByGram.remove(gram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        idsByTerm.clear();
+        terms.clear();
+        freeIds.clear();
+        termsByGram.clear();
+        refCounts = new int[64];
+    }
+
+    int size() {
+        return idsByTerm.size();
+    }
+
+    /**
+     * Vocabulary terms within maxEdits of the query, closest first
+     * @return Matches (the query itself included if it is in the vocabulary)
+     */
+    List<Match> closest(String query, int maxEdits) {
+        List<String> grams = trigrams(query);
+        // Short queries cannot be pruned by the count; requiring one shared trigram still bounds the work
+        int minShared = Math.max(1, grams.size() - 4 * maxEdits);
+        List<Match> matches = new ArrayList<>();
+
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            Postings list = termsByGram.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                shared.merge(list.ids[i], 1, Integer::sum);
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> e : shared.entrySet()) {
+            if (e.getValue() < minShared) {
+                continue;
+            }
+            String term = terms.get(e.getKey());
+            if (Math.abs(term.length() - query.length()) > maxEdits) {
+                continue;
+            }
+            int distance = boundedDistance(query, term, maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(term, distance));
+            }
+        }
+        matches.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : a.term.compareTo(b.term));
+        return matches;
+    }
+
+    /**
+     * Padded trigrams of a term, duplicates kept (they count towards the shared total)
+     */
+    static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(Math.max(0, padded.length() - 2));
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Edit distance with adjacent transpositions (optimal string alignment),
+     * or maxEdits + 1 as soon as it is known to exceed maxEdits
+     */
+    static int boundedDistance(String a, String b, int maxEdits) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, beforePrevious[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    /**
+     * A vocabulary term and its edit distance from the query
+     */
+    static class Match {
+        final String term;
+        final int distance;
+
+        Match(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.smartbuy.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs DAO calls off the JavaFX Application Thread
+ * Controllers submit a call, get a CompletableFuture back and apply the
+ * result on the FX thread (whenCompleteAsync(..., Platform::runLater)).
+ */
+public final class AsyncService {
+
+    // Sized like the connection pool: more threads would only queue on it
+    private static final int THREADS = Integer.getInteger("smartbuy.async.threads", 10);
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, new DaemonThreadFactory());
+
+    // Private constructor to prevent instantiation
+    private AsyncService() {}
+
+    /**
+     * A database call that may throw
+     */
+    @FunctionalInterface
+    public interface DbCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Run a database call on the background executor
+     * Cancelling the returned future drops the call if it has not started yet.
+     */
+    public static <T> CompletableFuture<T> supply(DbCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = EXECUTOR.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(call.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                // Never interrupt: a JDBC call cut off mid-flight can poison the pooled connection
+                task.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Run a database write with no result on the background executor
+     */
+    public static CompletableFuture<Void> run(DbCall<?> call) {
+        return supply(() -> {
+            call.call();
+            return null;
+        });
+    }
+
+    /**
+     * Whether a completion error means the request was superseded or cancelled
+     */
+    public static boolean isCancellation(Throwable error) {
+        return unwrap(error) instanceof CancellationException;
+    }
+
+    /**
+     * Strip the CompletionException/ExecutionException wrappers added by CompletableFuture
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Daemon threads so a pending query never keeps the JVM alive after the window closes
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "smartbuy-db-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.smartbuy.service;
+
+import com.example.smartbuy.dao.CartDAO;
+import com.example.smartbuy.util.DatabaseUtil;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for cart quantity changes
+ * The cart page applies a +/- click to its own model at once and hands the new
+ * quantity to this buffer. Repeated edits of the same cart line are merged, and
+ * only the last quantity is written, a short delay after the first edit
+ * (-Dsmartbuy.cart.writeDelayMs, default 500).
+ * Anything that reads the cart from the database calls flush() first, and pages
+ * flush when the user navigates away or logs out, so no edit is read stale or lost.
+ */
+public class CartWriteBuffer {
+
+    private static final long WRITE_DELAY_MS = Long.getLong("smartbuy.cart.writeDelayMs", 500);
+    // Longest wait between retries of a failed write
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private static final CartWriteBuffer INSTANCE = new CartWriteBuffer();
+
+    private final CartDAO cartDAO = new CartDAO();
+    // Latest quantity per cart_id, in the order the lines were first edited
+    private final Map<Integer, Integer> pending = new LinkedHashMap<>();
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "smartbuy-cart-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> scheduled;
+    // Delay before the next retry, doubled after each failed write; 0 after a successful one
+    private long retryDelayMs;
+
+    public CartWriteBuffer() {
+        // Edits made just before the window closes are written on the way out
+        DatabaseUtil.beforeShutdown(this::flushQuietly);
+    }
+
+    public static CartWriteBuffer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record a new quantity for a cart line; it is written after the delay
+     */
+    public synchronized void setQuantity(int cartId, int quantity) {
+        pending.put(cartId, quantity);
+        if (scheduled == null) {
+            scheduled = writer.schedule(this::flushQuietly, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Drop a pending edit, e.g. because the line is being removed
+     */
+    public synchronized void discard(int cartId) {
+        pending.remove(cartId);
+    }
+
+    /**
+     * Whether edits are waiting to be written
+     */
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Write every pending edit now, on the calling thread
+     * Waits for a write already in progress, so once this returns the database
+     * holds every edit made before the call.
+     */
+    public void flush() throws SQLException {
+        synchronized (writeLock) {
+            Map<Integer, Integer> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                cartDAO.updateCartItemQuantities(batch);
+                retrySucceeded();
+            } catch (SQLException | RuntimeException e) {
+                requeue(batch);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Write every pending edit on the writer thread (when leaving the cart page)
+     */
+    public void flushAsync() {
+        writer.execute(this::flushQuietly);
+    }
+
+    private synchronized Map<Integer, Integer> drain() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+        Map<Integer, Integer> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    // Put back edits that failed to write, unless the line was edited again meanwhile,
+    // and retry them with backoff if no write is scheduled yet
+    private synchronized void requeue(Map<Integer, Integer> batch) {
+        for (Map.Entry<Integer, Integer> e : batch.entrySet()) {
+            pending.putIfAbsent(e.getKey(), e.getValue());
+        }
+        retryDelayMs = retryDelayMs == 0 ? WRITE_DELAY_MS : Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+        if (scheduled == null && !pending.isEmpty()) {
+            scheduled = writer.schedule(this::flushQuietly, retryDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void retrySucceeded() {
+        retryDelayMs = 0;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // The edits stay pending; requeue scheduled a retry
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.smartbuy.service;
+
+import com.example.smartbuy.dao.CommitOutcomeUnknownException;
+import com.example.smartbuy.dao.OrderDAO;
+import com.example.smartbuy.model.CheckoutResult;
+import com.example.smartbuy.model.Order;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for checkouts
+ * Orders submitted within a short window are written by one writer thread in a
+ * single transaction (OrderDAO.checkoutAll), so a burst of checkouts shares one
+ * commit instead of paying for one each. Each caller's future completes with its
+ * own result. If the batch fails before its commit, its orders are retried one by
+ * one, so one bad order cannot fail the others. If the commit itself fails, the
+ * orders may exist, so they are failed with CommitOutcomeUnknownException instead.
+ * The window and batch size are set with -Dsmartbuy.checkout.batchWindowMs and
+ * -Dsmartbuy.checkout.maxBatchSize.
+ */
+public class CheckoutQueue {
+
+    private static final long DEFAULT_BATCH_WINDOW_MS = 5;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
+    private static final CheckoutQueue INSTANCE = new CheckoutQueue(
+            Long.getLong("smartbuy.checkout.batchWindowMs", DEFAULT_BATCH_WINDOW_MS),
+            Integer.getInteger("smartbuy.checkout.maxBatchSize", DEFAULT_MAX_BATCH_SIZE));
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private final BlockingQueue<PendingCheckout> queue = new LinkedBlockingQueue<>();
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+
+    public CheckoutQueue(long batchWindowMillis, int maxBatchSize) {
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        Thread writer = new Thread(this::writeLoop, "smartbuy-checkout-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static CheckoutQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue an order for the next batch
+     * @param reservedProductIds Products whose stock the caller has already taken (see OrderDAO.checkout)
+     * @return Completes with the checkout result, or exceptionally with the SQLException that failed it
+     */
+    public CompletableFuture<CheckoutResult> submit(Order order, Set<Integer> reservedProductIds) {
+        PendingCheckout pending = new PendingCheckout(order, reservedProductIds);
+        queue.add(pending);
+        return pending.result;
+    }
+
+    /**
+     * Queue an order and wait for it to be written
+     * The wait cannot be interrupted: once queued, the order may be committed, so
+     * the caller must learn the outcome.
+     */
+    public CheckoutResult checkout(Order order, Set<Integer> reservedProductIds) throws SQLException {
+        try {
+            return submit(order, reservedProductIds).join();
+        } catch (CompletionException e) {
+            Throwable cause = AsyncService.unwrap(e);
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingCheckout> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                // Collect more orders until the window closes or the batch is full
+                long deadline = System.nanoTime() + batchWindowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingCheckout next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // Daemon thread: the JVM is exiting
+                failAll(batch, e);
+                return;
+            } catch (Throwable e) {
+                // Never let the writer die: callers wait on these futures holding stock locks
+                e.printStackTrace();
+                failAll(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingCheckout> batch) {
+        if (batch.size() > 1) {
+            List<Order> orders = new ArrayList<>(batch.size());
+            List<Set<Integer>> reserved = new ArrayList<>(batch.size());
+            for (PendingCheckout pending : batch) {
+                orders.add(pending.order);
+                reserved.add(pending.reservedProductIds);
+            }
+            List<CheckoutResult> results = null;
+            try {
+                results = orderDAO.checkoutAll(orders, reserved);
+            } catch (CommitOutcomeUnknownException e) {
+                // The orders may be placed: retrying could place them twice
+                failAll(batch, e);
+                return;
+            } catch (SQLException | RuntimeException e) {
+                // Failed before the commit, so nothing was written; write the orders one by one
+                e.printStackTrace();
+            }
+            if (results != null) {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(results.get(i));
+                }
+                return;
+            }
+        }
+        for (PendingCheckout pending : batch) {
+            try {
+                pending.result.complete(orderDAO.checkout(pending.order, pending.reservedProductIds));
+            } catch (Throwable e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Futures already completed are left as they are
+    private static void failAll(List<PendingCheckout> batch, Throwable error) {
+        for (PendingCheckout pending : batch) {
+            pending.result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * An order waiting for the next batch, and the future its caller waits on
+     */
+    private static class PendingCheckout {
+        private final Order order;
+        private final Set<Integer> reservedProductIds;
+        private final CompletableFuture<CheckoutResult> result = new CompletableFuture<>();
+
+        PendingCheckout(Order order, Set<Integer> reservedProductIds) {
+            this.order = order;
+            this.reservedProductIds = reservedProductIds;
+        }
+    }
+}
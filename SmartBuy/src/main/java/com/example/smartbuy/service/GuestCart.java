@@ -0,0 +1,132 @@
+package com.example.smartbuy.service;
+
+import com.example.smartbuy.dao.CartDAO;
+import com.example.smartbuy.dao.ProductDAO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cart of a user who has not logged in, kept on local disk
+ * Adding to it never touches the database. At login, mergeInto() adds every line
+ * to the user's cart in one batched upsert and empties the file.
+ * The file holds a line count and then (product ID, quantity) int pairs; its
+ * location is set with -Dsmartbuy.guestCart.file (default ~/.smartbuy/guest-cart.bin).
+ */
+public class GuestCart {
+
+    private static final GuestCart INSTANCE = new GuestCart(Paths.get(System.getProperty("smartbuy.guestCart.file",
+            Paths.get(System.getProperty("user.home"), ".smartbuy", "guest-cart.bin").toString())));
+
+    private final CartDAO cartDAO = new CartDAO();
+    private final ProductDAO productDAO = new ProductDAO();
+    private final Path file;
+    // Quantity per product ID, in the order the products were added; null until read from the file
+    private Map<Integer, Integer> lines;
+
+    public GuestCart(Path file) {
+        this.file = file;
+    }
+
+    public static GuestCart getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Add a product and save the cart to disk
+     */
+    public synchronized void add(int productId, int quantity) throws IOException {
+        Map<Integer, Integer> current = lines();
+        current.merge(productId, quantity, Integer::sum);
+        try {
+            save();
+        } catch (IOException e) {
+            // Keep memory and disk the same
+            current.computeIfPresent(productId, (id, q) -> q - quantity > 0 ? q - quantity : null);
+            throw e;
+        }
+    }
+
+    /**
+     * Total units in the guest cart, for the cart badge
+     */
+    public synchronized int getItemCount() {
+        int count = 0;
+        for (int quantity : lines().values()) {
+            count += quantity;
+        }
+        return count;
+    }
+
+    /**
+     * Move the guest cart into a user's cart in one transaction, then empty it
+     * Lines of products deleted since they were added are dropped first; the cart
+     * table's foreign key would otherwise reject the whole merge, every time.
+     * If the merge fails the guest cart is kept, so it can be merged at the next login.
+     * @return Number of cart lines merged
+     */
+    public synchronized int mergeInto(int userId) throws SQLException, IOException {
+        Map<Integer, Integer> current = lines();
+        if (current.isEmpty()) {
+            return 0;
+        }
+        if (current.keySet().retainAll(productDAO.getProductsByIds(current.keySet()).keySet())) {
+            save();
+        }
+        if (current.isEmpty()) {
+            Files.deleteIfExists(file);
+            return 0;
+        }
+        cartDAO.addToCart(userId, current);
+        int merged = current.size();
+        current.clear();
+        Files.deleteIfExists(file);
+        return merged;
+    }
+
+    private Map<Integer, Integer> lines() {
+        if (lines == null) {
+            lines = new LinkedHashMap<>();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    lines.merge(in.readInt(), in.readInt(), Integer::sum);
+                }
+            } catch (NoSuchFileException e) {
+                // Nothing added yet
+            } catch (IOException e) {
+                // A damaged file is dropped rather than blocking the store
+                e.printStackTrace();
+                lines.clear();
+            }
+        }
+        return lines;
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves half a cart
+    private void save() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(lines.size());
+            for (Map.Entry<Integer, Integer> e : lines.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeInt(e.getValue());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
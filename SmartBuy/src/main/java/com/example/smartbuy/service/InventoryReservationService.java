@@ -0,0 +1,372 @@
+package com.example.smartbuy.service;
+
+import com.example.smartbuy.dao.CommitOutcomeUnknownException;
+import com.example.smartbuy.dao.InventoryLedgerDAO;
+import com.example.smartbuy.dao.ProductDAO;
+import com.example.smartbuy.model.CheckoutResult;
+import com.example.smartbuy.model.Order;
+import com.example.smartbuy.model.OrderItem;
+import com.example.smartbuy.model.Product;
+import com.example.smartbuy.util.DatabaseUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stock for hot products (e.g. a flash sale) held in memory
+ * A checkout takes a hot product's stock from an atomic counter instead of
+ * queueing on its products row; the order transaction writes an inventory_ledger
+ * row, and a background flusher applies the ledger to products.stock in batches.
+ * Ledger rows commit with their order, so a crash loses nothing: reconcile()
+ * applies whatever is left before the counters are loaded again.
+ * Counters belong to this process, so only the process that runs checkouts should
+ * mark products hot (promote(), or -Dsmartbuy.inventory.hotProducts=1,2,3).
+ *
+ * A checkout holds the read locks of its products' stripes until its transaction
+ * ends. Stock edits, promote and demote take the write lock, so they never run
+ * while a reservation is in flight.
+ */
+public class InventoryReservationService {
+
+    private static final int STRIPES = 64;
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("smartbuy.inventory.flushIntervalMs", 200);
+    // Ledger rows applied per flush transaction
+    private static final int FLUSH_BATCH = Integer.getInteger("smartbuy.inventory.flushBatch", 5000);
+
+    private static final InventoryReservationService INSTANCE = new InventoryReservationService();
+
+    private final CheckoutQueue checkoutQueue = CheckoutQueue.getInstance();
+    private final ProductDAO productDAO = new ProductDAO();
+    private final InventoryLedgerDAO ledgerDAO = new InventoryLedgerDAO();
+
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+    // Stock left to sell per hot product
+    private final Map<Integer, AtomicInteger> counters = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private volatile boolean started;
+    private ScheduledExecutorService flusher;
+
+    public InventoryReservationService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        // Sold stock still in the ledger is applied on the way out
+        DatabaseUtil.beforeShutdown(this::shutdown);
+    }
+
+    public static InventoryReservationService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Apply leftover ledger rows, load the configured hot products and start the flusher
+     * Runs once; every other method calls it first.
+     */
+    public void start() throws SQLException {
+        if (started) {
+            return;
+        }
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            drainLedger();
+            for (Integer productId : configuredHotProducts()) {
+                withWriteLock(productId, () -> loadCounter(productId));
+            }
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "smartbuy-inventory-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+            started = true;
+        }
+    }
+
+    /**
+     * Serve a product's stock from memory from now on
+     */
+    public void promote(int productId) throws SQLException {
+        start();
+        withWriteLock(productId, () -> loadCounter(productId));
+    }
+
+    /**
+     * Return a product to the row-lock checkout path
+     * Its pending ledger rows are still applied by the flusher.
+     */
+    public void demote(int productId) throws SQLException {
+        start();
+        withWriteLock(productId, () -> counters.remove(productId));
+    }
+
+    public boolean isHot(int productId) {
+        return counters.containsKey(productId);
+    }
+
+    /**
+     * Stock left to sell of a hot product
+     * @return Available stock, or -1 if the product is not hot
+     */
+    public int getAvailable(int productId) {
+        AtomicInteger counter = counters.get(productId);
+        return counter == null ? -1 : counter.get();
+    }
+
+    /**
+     * Place an order, taking the stock of hot products from memory
+     * Other products go through OrderDAO's conditional decrement as before.
+     */
+    public CheckoutResult checkout(Order order) throws SQLException {
+        start();
+
+        // Quantity per product in ID order; a product on several lines is taken once
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            names.putIfAbsent(item.getProductId(), item.getProductName());
+        }
+
+        List<Lock> locks = readLocks(quantities.keySet());
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+        Map<Integer, Integer> taken = new HashMap<>();
+        try {
+            List<CheckoutResult.Shortfall> shortfalls = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                AtomicInteger counter = counters.get(line.getKey());
+                if (counter == null) {
+                    continue;
+                }
+                if (take(counter, line.getValue())) {
+                    taken.put(line.getKey(), line.getValue());
+                } else {
+                    shortfalls.add(new CheckoutResult.Shortfall(line.getKey(), names.get(line.getKey()),
+                            line.getValue(), Math.max(0, counter.get())));
+                }
+            }
+            if (!shortfalls.isEmpty()) {
+                return CheckoutResult.rejected(shortfalls);
+            }
+
+            // Written by the group-commit queue; the locks stay held until it is committed
+            CheckoutResult result;
+            try {
+                result = checkoutQueue.checkout(order, new HashSet<>(taken.keySet()));
+            } catch (CommitOutcomeUnknownException e) {
+                // The ledger rows may exist: keep the stock taken rather than risk selling it
+                // twice; reconcile() reloads the counters from the database
+                taken.clear();
+                throw e;
+            }
+            if (result.isPlaced()) {
+                // Committed: the ledger rows now account for this stock
+                taken.clear();
+            }
+            return result;
+        } finally {
+            for (Map.Entry<Integer, Integer> e : taken.entrySet()) {
+                counters.get(e.getKey()).addAndGet(e.getValue());
+            }
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Set a product's stock (admin backend), keeping its counter in step if it is hot
+     * @param newStock Stock left to sell
+     */
+    public boolean updateStock(int productId, int newStock) throws SQLException {
+        start();
+        if (!isHot(productId)) {
+            return productDAO.updateStock(productId, newStock);
+        }
+        return withWriteLock(productId, () -> {
+            // Re-checked under the lock: it may have been demoted meanwhile
+            AtomicInteger counter = counters.get(productId);
+            if (counter == null) {
+                return productDAO.updateStock(productId, newStock);
+            }
+            boolean updated = ledgerDAO.setAvailableStock(productId, newStock);
+            counter.set(newStock);
+            productDAO.productsChanged(Collections.singletonList(productId));
+            return updated;
+        });
+    }
+
+    /**
+     * Update a product (admin backend)
+     * The stock of a hot product is not written: the edited Product was read before
+     * the flusher may have applied ledger rows, so its stock can be stale. Change a
+     * hot product's stock with updateStock.
+     */
+    public boolean updateProduct(Product product) throws SQLException {
+        start();
+        int productId = product.getProductId();
+        return withWriteLock(productId, () -> counters.containsKey(productId)
+                ? productDAO.updateProductDetails(product)
+                : productDAO.updateProduct(product));
+    }
+
+    /**
+     * Delete a product (admin backend), dropping its counter
+     */
+    public boolean deleteProduct(int productId) throws SQLException {
+        start();
+        return withWriteLock(productId, () -> {
+            counters.remove(productId);
+            return productDAO.deleteProduct(productId);
+        });
+    }
+
+    /**
+     * Apply one batch of pending ledger rows to products.stock
+     * @return Units applied per product ID (empty when nothing was pending)
+     */
+    public Map<Integer, Integer> flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<Integer, Integer> applied = ledgerDAO.applyPending(FLUSH_BATCH);
+            if (!applied.isEmpty()) {
+                productDAO.productsChanged(applied.keySet());
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * Apply every pending ledger row and reload the hot counters from the database
+     * Run after a crash, or when stock was changed outside this service.
+     */
+    public void reconcile() throws SQLException {
+        start();
+        drainLedger();
+        for (Integer productId : new ArrayList<>(counters.keySet())) {
+            withWriteLock(productId, () -> loadCounter(productId));
+        }
+    }
+
+    /**
+     * Stop the flusher and apply what is pending (runs on application exit)
+     */
+    public synchronized void shutdown() {
+        if (!started) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        try {
+            drainLedger();
+        } catch (SQLException e) {
+            // Left for reconcile on the next start
+            e.printStackTrace();
+        }
+        counters.clear();
+        started = false;
+    }
+
+    // Caller holds the product's write lock, so no reservation of it is in flight
+    private Object loadCounter(int productId) throws SQLException {
+        Integer available = ledgerDAO.getAvailableStock(productId);
+        if (available == null) {
+            counters.remove(productId);
+        } else {
+            counters.put(productId, new AtomicInteger(available));
+        }
+        return available;
+    }
+
+    private void drainLedger() throws SQLException {
+        while (!flush().isEmpty()) {
+            // Keep applying batches until nothing is pending
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // The rows stay pending and are retried on the next run
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean take(AtomicInteger counter, int quantity) {
+        while (true) {
+            int available = counter.get();
+            if (available < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(available, available - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private ReentrantReadWriteLock stripeOf(int productId) {
+        return stripes[Math.floorMod(productId, STRIPES)];
+    }
+
+    // Read locks of the products' stripes, in stripe order so checkouts never deadlock each other
+    private List<Lock> readLocks(Iterable<Integer> productIds) {
+        TreeSet<Integer> stripeIds = new TreeSet<>();
+        for (Integer productId : productIds) {
+            stripeIds.add(Math.floorMod(productId, STRIPES));
+        }
+        List<Lock> locks = new ArrayList<>(stripeIds.size());
+        for (Integer stripe : stripeIds) {
+            locks.add(stripes[stripe].readLock());
+        }
+        return locks;
+    }
+
+    private <T> T withWriteLock(int productId, AsyncService.DbCall<T> call) throws SQLException {
+        Lock lock = stripeOf(productId).writeLock();
+        lock.lock();
+        try {
+            return call.call();
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<Integer> configuredHotProducts() {
+        List<Integer> productIds = new ArrayList<>();
+        for (String id : System.getProperty("smartbuy.inventory.hotProducts", "").split(",")) {
+            if (!id.trim().isEmpty()) {
+                productIds.add(Integer.parseInt(id.trim()));
+            }
+        }
+        return productIds;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.smartbuy.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps only the most recent request of one kind alive
+ * Submitting a new request cancels the previous one, e.g. a new search
+ * replaces a search that is still running, so stale results are never shown.
+ */
+public class LatestRequest<T> {
+
+    private CompletableFuture<T> current;
+
+    /**
+     * Cancel the pending request (if any) and start a new one
+     */
+    public synchronized CompletableFuture<T> submit(AsyncService.DbCall<T> call) {
+        if (current != null) {
+            current.cancel(false);
+        }
+        current = AsyncService.supply(call);
+        return current;
+    }
+
+    /**
+     * Whether the future is still the latest request; results of older ones should be dropped
+     */
+    public synchronized boolean isLatest(CompletableFuture<?> future) {
+        return future == current && !future.isCancelled();
+    }
+
+    /**
+     * Cancel the pending request, e.g. when leaving the page
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel(false);
+            current = null;
+        }
+    }
+}
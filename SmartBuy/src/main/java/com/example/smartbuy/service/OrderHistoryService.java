@@ -0,0 +1,33 @@
+package com.example.smartbuy.service;
+
+import com.example.smartbuy.dao.OrderDAO;
+import com.example.smartbuy.model.OrderItem;
+import com.example.smartbuy.util.Session;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Items of orders opened in the order history
+ * Reads through the session's cache, so opening an order again costs no query.
+ * Items never change once the order is placed, so the cache is never stale.
+ */
+public class OrderHistoryService {
+
+    private final OrderDAO orderDAO = new OrderDAO();
+
+    /**
+     * Get the items of an order, from the session cache or the database
+     * The list is unmodifiable: it is shared with every later caller.
+     * Safe to call from a background thread (e.g. AsyncService.supply).
+     */
+    public List<OrderItem> getOrderItems(int orderId) throws SQLException {
+        Session session = Session.getInstance();
+        List<OrderItem> items = session.getCachedOrderItems(orderId);
+        if (items == null) {
+            items = List.copyOf(orderDAO.getOrderItems(orderId));
+            session.cacheOrderItems(orderId, items);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,541 @@
+package com.example.smartbuy.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded JDBC connection pool
+ * Hands out validated connections whose close() returns them to the pool,
+ * evicts connections that stay idle too long and keeps acquire/wait metrics.
+ * Each pooled connection carries its own StatementCache.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long acquireTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    // Callers blocked on an exhausted pool, served strictly in arrival order
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int totalCount;
+    private int activeCount;
+    private boolean shutdown;
+
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    private final ScheduledExecutorService evictor;
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        // Connections used within the last half second are trusted without a round trip
+        this.validationIntervalMillis = 500;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "smartbuy-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection; closing it returns it to the pool
+     * @return Connection object
+     * @throws SQLException if no connection becomes available within the acquire timeout
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        while (true) {
+            PooledEntry entry = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                if (shutdown) {
+                    throw new SQLException("Connection pool has been shut down");
+                }
+                if (waiters.isEmpty() && !idle.isEmpty()) {
+                    entry = idle.pollFirst();
+                } else if (waiters.isEmpty() && totalCount < maxSize) {
+                    totalCount++;
+                    create = true;
+                } else {
+                    Waiter waiter = awaitHandOff(deadline);
+                    entry = waiter.entry;
+                    create = entry == null;
+                }
+                activeCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    entry = new PooledEntry(DriverManager.getConnection(url, user, password));
+                    createdCount.incrementAndGet();
+                } catch (SQLException | RuntimeException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (!isUsable(entry)) {
+                discard(entry);
+                continue;
+            }
+
+            acquireLatency.record(System.nanoTime() - start);
+            return entry.lease();
+        }
+    }
+
+    /**
+     * Queue the caller until a connection (or a free slot) is handed to it; lock must be held
+     */
+    private Waiter awaitHandOff(long deadline) throws SQLException {
+        Waiter waiter = new Waiter();
+        waiters.addLast(waiter);
+        waitCount.incrementAndGet();
+        long waitStart = System.nanoTime();
+        try {
+            while (!waiter.isGranted()) {
+                if (shutdown) {
+                    waiters.remove(waiter);
+                    throw new SQLException("Connection pool has been shut down");
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    waiters.remove(waiter);
+                    timeoutCount.incrementAndGet();
+                    throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+                            + "ms waiting for a database connection (" + describe() + ")");
+                }
+                try {
+                    waiter.condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    waiters.remove(waiter);
+                    if (waiter.entry != null) {
+                        offer(waiter.entry);
+                    } else if (waiter.slotGranted) {
+                        freeSlot();
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection", e);
+                }
+            }
+            return waiter;
+        } finally {
+            totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+        }
+    }
+
+    /**
+     * Give a healthy connection to the oldest waiter, or park it as idle; lock must be held
+     */
+    private void offer(PooledEntry entry) {
+        Waiter waiter = waiters.pollFirst();
+        if (waiter != null) {
+            waiter.entry = entry;
+            waiter.condition.signal();
+        } else {
+            entry.lastUsedAt = System.currentTimeMillis();
+            // LIFO keeps the most recently used (warm) connections in play
+            idle.addFirst(entry);
+        }
+    }
+
+    /**
+     * Release capacity for one connection, letting the oldest waiter open it; lock must be held
+     */
+    private void freeSlot() {
+        Waiter waiter = waiters.pollFirst();
+        if (waiter != null) {
+            waiter.slotGranted = true;
+            waiter.condition.signal();
+        } else {
+            totalCount--;
+        }
+    }
+
+    /**
+     * Open connections until the pool holds at least minSize of them
+     */
+    public void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (shutdown || totalCount >= minSize) {
+                    return;
+                }
+                totalCount++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                PooledEntry entry = new PooledEntry(DriverManager.getConnection(url, user, password));
+                createdCount.incrementAndGet();
+                lock.lock();
+                try {
+                    offer(entry);
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                lock.lock();
+                try {
+                    totalCount--;
+                } finally {
+                    lock.unlock();
+                }
+                System.err.println("Connection pool warm-up failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Close every idle connection and refuse further requests
+     */
+    public void shutdown() {
+        List<PooledEntry> toClose;
+        lock.lock();
+        try {
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            totalCount -= idle.size();
+            idle.clear();
+            for (Waiter waiter : waiters) {
+                waiter.condition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        for (PooledEntry entry : toClose) {
+            entry.closePhysical();
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastUsedAt < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Called by a leased connection when the caller closes it
+     */
+    private void release(PooledEntry entry) {
+        boolean healthy = entry.resetState();
+        lock.lock();
+        try {
+            activeCount--;
+            if (healthy && !shutdown) {
+                offer(entry);
+                return;
+            }
+            freeSlot();
+        } finally {
+            lock.unlock();
+        }
+        entry.closePhysical();
+    }
+
+    /**
+     * Drop a connection that failed to open or failed validation
+     */
+    private void discard(PooledEntry entry) {
+        lock.lock();
+        try {
+            activeCount--;
+            freeSlot();
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null) {
+            entry.closePhysical();
+        }
+    }
+
+    private void evictIdle() {
+        try {
+            evictExpired();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive
+            e.printStackTrace();
+        }
+    }
+
+    private void evictExpired() {
+        List<PooledEntry> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            // Oldest entries sit at the tail of the deque
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext() && totalCount > minSize) {
+                PooledEntry entry = it.next();
+                if (now - entry.lastUsedAt < idleTimeoutMillis) {
+                    break;
+                }
+                it.remove();
+                totalCount--;
+                toClose.add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledEntry entry : toClose) {
+            evictedCount.incrementAndGet();
+            entry.closePhysical();
+        }
+    }
+
+    // ---------- Metrics ----------
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return activeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return totalCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Latency of getConnection(), including waiting, opening and validation
+     */
+    public LatencyHistogram getAcquireLatency() {
+        return acquireLatency;
+    }
+
+    /**
+     * Total time callers spent blocked because the pool was exhausted
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.get();
+    }
+
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * One-line pool status for logs
+     */
+    public String describe() {
+        return String.format("active=%d idle=%d total=%d/%d waiting=%d waits=%d waitTime=%.1fms timeouts=%d acquire[%s]",
+                activeCount, idle.size(), totalCount, maxSize, waiters.size(),
+                waitCount.get(), LatencyHistogram.toMillis(totalWaitNanos.get()),
+                timeoutCount.get(), acquireLatency.summary());
+    }
+
+    /**
+     * A caller parked until a connection or a free slot is handed to it
+     */
+    private class Waiter {
+        private final Condition condition = lock.newCondition();
+        private PooledEntry entry;
+        private boolean slotGranted;
+
+        boolean isGranted() {
+            return entry != null || slotGranted;
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool
+     */
+    private class PooledEntry {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new StatementCache(physical, statementCacheSize);
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+
+        /**
+         * Undo per-lease state so the next borrower gets a clean connection
+         * @return false if the connection is no longer usable
+         */
+        boolean resetState() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            statementCache.closeAll();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The Connection seen by a DAO for one borrow
+     */
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean closed;
+
+        LeaseHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(method.getName())) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return entry.statementCache.prepare((String) args[0], -1);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return entry.statementCache.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,34 +1,134 @@
 package com.example.smartbuy.util;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
 * Database connection utility class
-* Manages MySQL database connections
+* Manages MySQL database connections through a shared connection pool
+ * The pool is closed by a JVM shutdown hook, after the tasks registered with
+ * beforeShutdown() (pending writes) have run.
  */
 public class DatabaseUtil {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/smartbuy_db?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
+    // rewriteBatchedStatements: a JDBC batch (e.g. the CartDAO bulk methods) is one round trip, not one per row
+    private static final String URL = "jdbc:mysql://localhost:3306/smartbuy_db?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&useServerPrepStmts=true&rewriteBatchedStatements=true";
     private static final String USER = "root";
     private static final String PASSWORD = "lbx050711";
+    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+
+    // Pool defaults, each can be overridden with a -Dsmartbuy.db.pool.* system property
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long POOL_IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = 5000;
+    // Prepared statements kept open per connection (see StatementCache)
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private static volatile ConnectionPool pool;
+    // Run in order by the shutdown hook while the pool is still open
+    private static final List<Runnable> BEFORE_SHUTDOWN = new CopyOnWriteArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseUtil::runShutdownHook, "smartbuy-db-shutdown"));
+    }
 
     // Private constructor to prevent instantiation
     private DatabaseUtil() {}
 
     /**
-     * Get database connection
+     * Get database connection from the pool
+     * Closing the returned connection hands it back to the pool.
+     * Statements created from it are recorded in SqlStats.
      * @return Connection object
      * @throws SQLException if the connection fails
      */
     public static Connection getConnection() throws SQLException {
+        return SqlStats.wrap(getPool().getConnection());
+    }
+
+    /**
+     * Get the shared connection pool, creating it on first use
+     * @return Connection pool (also the source of pool metrics)
+     * @throws SQLException if the JDBC driver is missing
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseUtil.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool createPool() throws SQLException {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            Class.forName(System.getProperty("smartbuy.db.driver", DRIVER));
         } catch (ClassNotFoundException e) {
             throw new SQLException("MySQL driver not found.", e);
         }
+        ConnectionPool created = new ConnectionPool(
+                System.getProperty("smartbuy.db.url", URL),
+                System.getProperty("smartbuy.db.user", USER),
+                System.getProperty("smartbuy.db.password", PASSWORD),
+                Integer.getInteger("smartbuy.db.pool.minSize", POOL_MIN_SIZE),
+                Integer.getInteger("smartbuy.db.pool.maxSize", POOL_MAX_SIZE),
+                Long.getLong("smartbuy.db.pool.idleTimeoutMs", POOL_IDLE_TIMEOUT_MS),
+                Long.getLong("smartbuy.db.pool.acquireTimeoutMs", POOL_ACQUIRE_TIMEOUT_MS),
+                Integer.getInteger("smartbuy.db.pool.statementCacheSize", STATEMENT_CACHE_SIZE));
+        created.fillToMinimum();
+        return created;
+    }
+
+    /**
+     * Run a task on application exit, before the pool is closed
+     * For writes still pending when the JVM exits; a shutdown hook of its own could
+     * run after the pool is gone.
+     */
+    public static void beforeShutdown(Runnable task) {
+        BEFORE_SHUTDOWN.add(task);
+    }
+
+    /**
+     * Close all pooled connections (run by the shutdown hook on application exit)
+     * If -Dsmartbuy.db.stats.file is set, the SQL statistics are written there first.
+     */
+    public static void shutdown() {
+        String statsFile = System.getProperty("smartbuy.db.stats.file");
+        if (statsFile != null && !statsFile.isEmpty()) {
+            try {
+                SqlStats.dumpTo(Paths.get(statsFile));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        synchronized (DatabaseUtil.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+
+    private static void runShutdownHook() {
+        for (Runnable task : BEFORE_SHUTDOWN) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // The other tasks and closing the pool still run
+                e.printStackTrace();
+            }
+        }
+        shutdown();
     }
 
     /**
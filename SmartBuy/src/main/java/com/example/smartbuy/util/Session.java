@@ -1,13 +1,31 @@
 package com.example.smartbuy.util;
 
+import com.example.smartbuy.model.OrderItem;
 import com.example.smartbuy.model.User;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  *Session Management Class - Save Current Logged-in User Information
  */
 public class Session {
+    // Orders whose items stay cached, least recently opened dropped first
+    private static final int ORDER_ITEMS_CACHE_SIZE = 32;
+    
     private static Session instance;
     private User currentUser;
+    // Units in the user's cart for the cart badge; -1 until read from the database
+    private int cartItemCount = -1;
+    // Items of orders opened in the order history, so opening one again costs no query
+    private final Map<Integer, List<OrderItem>> orderItems =
+            new LinkedHashMap<Integer, List<OrderItem>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<OrderItem>> eldest) {
+                    return size() > ORDER_ITEMS_CACHE_SIZE;
+                }
+            };
     
     private Session() {}
     
@@ -20,6 +38,8 @@ public class Session {
     
     public void setCurrentUser(User user) {
         this.currentUser = user;
+        this.cartItemCount = -1;
+        clearOrderItems();
     }
     
     public User getCurrentUser() {
@@ -36,5 +56,56 @@ public class Session {
     
     public void logout() {
         this.currentUser = null;
+        this.cartItemCount = -1;
+        clearOrderItems();
+    }
+    
+    /**
+     * Units in the cart, or -1 if unknown (read it from the database and call setCartItemCount)
+     */
+    public int getCartItemCount() {
+        return cartItemCount;
+    }
+    
+    public void setCartItemCount(int count) {
+        this.cartItemCount = count;
+    }
+    
+    /**
+     * Apply a cart write to the count (no-op while it is unknown)
+     */
+    public void adjustCartItemCount(int delta) {
+        if (cartItemCount >= 0) {
+            cartItemCount = Math.max(0, cartItemCount + delta);
+        }
+    }
+    
+    /**
+     * Forget the count, e.g. after a failed write, so it is read again
+     */
+    public void invalidateCartItemCount() {
+        this.cartItemCount = -1;
+    }
+    
+    /**
+     * Items of an order opened earlier in this session, or null if not cached
+     * Safe to call from a background thread (see OrderHistoryService).
+     */
+    public List<OrderItem> getCachedOrderItems(int orderId) {
+        synchronized (orderItems) {
+            return orderItems.get(orderId);
+        }
+    }
+    
+    public void cacheOrderItems(int orderId, List<OrderItem> items) {
+        synchronized (orderItems) {
+            orderItems.put(orderId, items);
+        }
+    }
+    
+    private void clearOrderItems() {
+        synchronized (orderItems) {
+            orderItems.clear();
+        }
     }
 }
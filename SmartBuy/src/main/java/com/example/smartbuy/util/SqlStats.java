@@ -0,0 +1,293 @@
+package com.example.smartbuy.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-SQL execution statistics for the DAO layer
+ * DatabaseUtil hands out connections wrapped by {@link #wrap(Connection)}; every
+ * statement created from them records call count, rows returned or updated,
+ * errors and an execution latency histogram under its SQL text.
+ */
+public class SqlStats {
+
+    private static final Map<String, StatementStats> BY_SQL = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = !"false".equals(System.getProperty("smartbuy.db.stats"));
+
+    // Private constructor to prevent instantiation
+    private SqlStats() {}
+
+    /**
+     * Wrap a connection so the statements it creates are measured
+     * @param connection Connection to wrap (closing the wrapper closes it)
+     * @return Instrumented connection, or the same connection if statistics are disabled
+     */
+    public static Connection wrap(Connection connection) {
+        if (!enabled) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                SqlStats.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Statistics for one SQL template, or null if it has not run yet
+     */
+    public static StatementStats get(String sql) {
+        return BY_SQL.get(normalize(sql));
+    }
+
+    /**
+     * Snapshot of all statistics, sorted by SQL text
+     */
+    public static Map<String, StatementStats> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<>(BY_SQL));
+    }
+
+    public static void reset() {
+        BY_SQL.clear();
+    }
+
+    /**
+     * Multi-line report, slowest total time first
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("SQL statistics (%d statements)%n", BY_SQL.size()));
+        BY_SQL.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().getLatency().getTotalNanos(),
+                        a.getValue().getLatency().getTotalNanos()))
+                .forEach(e -> {
+                    StatementStats s = e.getValue();
+                    sb.append(String.format("%s rows=%d errors=%d total=%.1fms%n    %s%n",
+                            s.getLatency().summary(), s.getRows(), s.getErrors(),
+                            LatencyHistogram.toMillis(s.getLatency().getTotalNanos()), e.getKey()));
+                });
+        return sb.toString();
+    }
+
+    /**
+     * Write the report to a file, replacing any previous contents
+     * @param file Target file
+     * @throws IOException if the file cannot be written
+     */
+    public static void dumpTo(Path file) throws IOException {
+        Files.write(file, report().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Collapse whitespace so the same SQL formatted differently shares one entry
+    static String normalize(String sql) {
+        return sql == null ? "<null>" : sql.trim().replaceAll("\\s+", " ");
+    }
+
+    private static StatementStats statsFor(String sql) {
+        return BY_SQL.computeIfAbsent(normalize(sql), k -> new StatementStats());
+    }
+
+    /**
+     * Counters and latency histogram for one SQL template
+     */
+    public static class StatementStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        public long getCalls() {
+            return latency.getCount();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+
+    /**
+     * Wraps every statement the connection creates
+     */
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                default:
+                    break;
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof PreparedStatement && "prepareStatement".equals(method.getName())) {
+                return proxy(PreparedStatement.class, (Statement) result, (String) args[0]);
+            }
+            if (result instanceof Statement && "createStatement".equals(method.getName())) {
+                return proxy(Statement.class, (Statement) result, null);
+            }
+            return result;
+        }
+
+        private static Object proxy(Class<? extends Statement> type, Statement statement, String sql) {
+            return Proxy.newProxyInstance(
+                    SqlStats.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    /**
+     * Times execute calls and counts affected rows
+     * For a plain Statement the SQL comes from the execute call itself.
+     */
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final StatementStats preparedStats;
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.preparedStats = preparedSql == null ? null : statsFor(preparedSql);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                case "addBatch":
+                    if (preparedSql == null && args != null && args.length == 1) {
+                        batchSql = (String) args[0];
+                    }
+                    return invokeTarget(target, method, args);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+
+            StatementStats stats = preparedStats != null ? preparedStats
+                    : statsFor(args != null && args.length > 0 && args[0] instanceof String
+                            ? (String) args[0] : batchSql);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable t) {
+                stats.latency.record(System.nanoTime() - start);
+                stats.errors.increment();
+                throw t;
+            }
+            stats.latency.record(System.nanoTime() - start);
+
+            if (result instanceof ResultSet) {
+                // Rows are counted as the DAO reads them
+                return Proxy.newProxyInstance(
+                        SqlStats.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class},
+                        new ResultSetHandler((ResultSet) result, stats));
+            }
+            if (result instanceof Integer) {
+                stats.rows.add(Math.max(0, (Integer) result));
+            } else if (result instanceof Long) {
+                stats.rows.add(Math.max(0, (Long) result));
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    stats.rows.add(Math.max(0, count));
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    stats.rows.add(Math.max(0, count));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Counts rows read through next()
+     */
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementStats stats;
+
+        ResultSetHandler(ResultSet target, StatementStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                default:
+                    break;
+            }
+            Object result = invokeTarget(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                stats.rows.increment();
+            }
+            return result;
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
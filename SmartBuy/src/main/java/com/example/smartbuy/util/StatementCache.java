@@ -0,0 +1,257 @@
+package com.example.smartbuy.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepared statement cache for one pooled connection
+ * Statements are keyed by SQL text and kept open across borrows, so each SQL
+ * string is parsed once per physical connection instead of once per DAO call.
+ * Closing a cached statement only resets it; the physical statement is closed
+ * when it is evicted or when its connection leaves the pool.
+ */
+public class StatementCache {
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final Map<String, Counts> COUNTS_BY_SQL = new ConcurrentHashMap<>();
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    public StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        // Access-ordered, so iteration starts at the least recently used statement
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get a prepared statement for the SQL, reusing the cached one when it is free
+     * @param sql SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, or -1 if not specified
+     */
+    public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys < 0 ? sql : autoGeneratedKeys + "#" + sql;
+        Counts counts = COUNTS_BY_SQL.computeIfAbsent(sql, k -> new Counts());
+
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            HITS.increment();
+            counts.hits.increment();
+            return cached.checkOut();
+        }
+
+        MISSES.increment();
+        counts.misses.increment();
+        PreparedStatement created = autoGeneratedKeys < 0
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null || maxSize <= 0) {
+            // The cached copy is busy (same SQL opened twice at once): hand out a plain statement
+            return created;
+        }
+        CachedStatement entry = new CachedStatement(created);
+        statements.put(key, entry);
+        evictOverflow();
+        return entry.checkOut();
+    }
+
+    /**
+     * Close every cached statement (the connection is leaving the pool)
+     */
+    public void closeAll() {
+        for (CachedStatement entry : statements.values()) {
+            entry.closePhysical();
+        }
+        statements.clear();
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            it.remove();
+            if (eldest.inUse) {
+                eldest.evicted = true;
+            } else {
+                eldest.closePhysical();
+            }
+        }
+    }
+
+    // ---------- Statistics ----------
+
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    public static double getHitRatio() {
+        long hits = HITS.sum();
+        long total = hits + MISSES.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Hit/miss counts per SQL text
+     */
+    public static Map<String, Counts> getCountsBySql() {
+        return Collections.unmodifiableMap(new TreeMap<>(COUNTS_BY_SQL));
+    }
+
+    public static void resetStatistics() {
+        HITS.reset();
+        MISSES.reset();
+        COUNTS_BY_SQL.clear();
+    }
+
+    /**
+     * Multi-line hit/miss report, one line per SQL text
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Statement cache: hits=%d misses=%d hitRatio=%.1f%%%n",
+                getHitCount(), getMissCount(), getHitRatio() * 100));
+        for (Map.Entry<String, Counts> e : getCountsBySql().entrySet()) {
+            sb.append(String.format("  hits=%-8d misses=%-6d %s%n",
+                    e.getValue().getHits(), e.getValue().getMisses(), e.getKey()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hit/miss counters for one SQL text
+     */
+    public static class Counts {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+    }
+
+    /**
+     * A physical statement owned by the cache
+     */
+    private static class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement checkOut() {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new CheckOutHandler(this));
+        }
+
+        void checkIn(List<ResultSet> openResults) {
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.clearWarnings();
+            } catch (SQLException e) {
+                // A statement that cannot be reset is not worth keeping
+                evicted = true;
+            }
+            inUse = false;
+            if (evicted) {
+                closePhysical();
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The PreparedStatement seen by a DAO for one use of a cached statement
+     */
+    private static class CheckOutHandler implements InvocationHandler {
+        private final CachedStatement entry;
+        private final List<ResultSet> openResults = new ArrayList<>(1);
+        private boolean closed;
+
+        CheckOutHandler(CachedStatement entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        entry.checkIn(openResults);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Closing a real statement closes its result sets; keep that contract
+            if (result instanceof ResultSet) {
+                openResults.add((ResultSet) result);
+            }
+            return result;
+        }
+    }
+}